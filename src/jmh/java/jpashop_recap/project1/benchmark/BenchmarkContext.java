@@ -0,0 +1,119 @@
+package jpashop_recap.project1.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpashop_recap.project1.Project1Application;
+import jpashop_recap.project1.domain.*;
+import jpashop_recap.project1.domain.item.Book;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크용 스프링 컨텍스트. 인메모리 H2를 띄우고 주문 x 주문상품 데이터를 넣는다.
+ * SQL 로그는 측정값을 왜곡하므로 끄고, 쿼리 수를 세기 위해 Hibernate 통계만 켠다.
+ */
+public class BenchmarkContext implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+
+    public BenchmarkContext() {
+        this(WebApplicationType.NONE);
+    }
+
+    public BenchmarkContext(WebApplicationType webApplicationType, String... extraProperties) {
+        context = new SpringApplicationBuilder(Project1Application.class)
+                .web(webApplicationType)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.generate_statistics=true",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "logging.level.org.hibernate.orm.jdbc.bind=warn",
+                        "decorator.datasource.p6spy.enable-logging=false")
+                .properties(extraProperties)
+                .run();
+    }
+
+    public int localPort() {
+        return Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public Statistics statistics() {
+        return getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * 회원 100명, 상품 itemsPerOrder개를 만들고, 주문마다 모든 상품을 하나씩 담는다.
+     */
+    public void seed(int orders, int itemsPerOrder) {
+        EntityManager em = getBean(EntityManager.class);
+        getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            List<Member> members = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                Member member = new Member();
+                member.setName("bench-member-" + i);
+                member.setAddress(new Address("서울", String.valueOf(i), "1111"));
+                em.persist(member);
+                members.add(member);
+            }
+
+            List<Book> books = new ArrayList<>();
+            for (int i = 0; i < itemsPerOrder; i++) {
+                Book book = new Book();
+                book.setName("BENCH BOOK " + i);
+                book.setPrice(10000 + i);
+                book.setStockQuantity(Integer.MAX_VALUE);
+                em.persist(book);
+                books.add(book);
+            }
+
+            for (int i = 0; i < orders; i++) {
+                Member member = members.get(i % members.size());
+                Delivery delivery = new Delivery();
+                delivery.setAddress(member.getAddress());
+                delivery.setStatus(DeliveryStatus.READY);
+
+                OrderItem[] orderItems = books.stream()
+                        .map(b -> OrderItem.createOrderItem(b, b.getPrice(), 1))
+                        .toArray(OrderItem[]::new);
+                em.persist(Order.createOrder(member, delivery, orderItems));
+            }
+        });
+        em.clear();
+    }
+
+    /**
+     * 회원 members명을 만든다. (주소 포함)
+     */
+    public void seedMembers(int members) {
+        EntityManager em = getBean(EntityManager.class);
+        getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            for (int i = 0; i < members; i++) {
+                Member member = new Member();
+                member.setName("bench-list-member-" + i);
+                member.setAddress(new Address("서울", String.valueOf(i), "1111"));
+                em.persist(member);
+                if (i % 1000 == 999) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+        });
+        em.clear();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,68 @@
+package jpashop_recap.project1.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jpashop_recap.project1.api.ApiDtoSerializers;
+import jpashop_recap.project1.domain.Address;
+import jpashop_recap.project1.domain.OrderStatus;
+import jpashop_recap.project1.repository.query.dto.OrderItemQueryDto;
+import jpashop_recap.project1.repository.query.dto.OrderQueryDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 큰 주문 DTO 목록 직렬화 비교 (DB 없이 직렬화만 측정)
+ * - reflection: 기본 BeanSerializer (getter 리플렉션 + 프로퍼티 메타데이터)
+ * - handWritten: ApiDtoSerializers 모듈 등록
+ * 할당량은 gc 프로파일러의 gc.alloc.rate.norm(호출당 할당 바이트)으로 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DtoSerializationBenchmark {
+
+    @Param({"1000", "10000"})
+    public int orders;
+
+    @Param({"2", "10"})
+    public int itemsPerOrder;
+
+    @Param({"reflection", "handWritten"})
+    public String serializer;
+
+    private ObjectMapper objectMapper;
+    private List<OrderQueryDto> data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if ("handWritten".equals(serializer)) {
+            objectMapper.registerModule(ApiDtoSerializers.module());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        data = new ArrayList<>(orders);
+        for (long i = 1; i <= orders; i++) {
+            OrderQueryDto order = new OrderQueryDto(i, "member" + i, now, OrderStatus.ORDER,
+                    new Address("city" + i, "street" + i, "zip" + i));
+            List<OrderItemQueryDto> orderItems = new ArrayList<>(itemsPerOrder);
+            for (int j = 0; j < itemsPerOrder; j++) {
+                orderItems.add(new OrderItemQueryDto(i, "item" + j, 10000 + j, j + 1));
+            }
+            order.setOrderItems(orderItems);
+            data.add(order);
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(data);
+    }
+}
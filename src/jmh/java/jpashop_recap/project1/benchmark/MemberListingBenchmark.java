@@ -0,0 +1,80 @@
+package jpashop_recap.project1.benchmark;
+
+import jpashop_recap.project1.domain.Member;
+import jpashop_recap.project1.repository.query.dto.MemberListDto;
+import jpashop_recap.project1.service.MemberService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 목록 조회 방식별 메모리 비교
+ * - entities: 기존 방식. Member 엔티티 전체(주소, orders 프록시, 변경 감지 스냅샷)를 영속성 컨텍스트에 올린 뒤 이름만 꺼낸다.
+ * - dtoPages: DTO(id, 이름, 도시) 커서 페이징으로 전체를 pageSize씩 읽는다.
+ * - dtoStream: DTO를 fetch size 단위 스트림으로 읽는다. (export)
+ * 할당량은 gc 프로파일러의 gc.alloc.rate.norm(호출당 할당 바이트)으로 비교한다.
+ * 회원 목록 쿼리 캐시/2차 캐시의 영향을 빼기 위해 캐시를 끈다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberListingBenchmark {
+
+    @Param({"10000", "100000"})
+    public int members;
+
+    @Param({"1000"})
+    public int pageSize;
+
+    private BenchmarkContext context;
+    private MemberService memberService;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext(WebApplicationType.NONE,
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        context.seedMembers(members);
+        memberService = context.getBean(MemberService.class);
+
+        readOnly = new TransactionTemplate(context.getBean(TransactionTemplate.class).getTransactionManager());
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void entities(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> {
+            for (Member member : memberService.findMembers()) {
+                bh.consume(member.getName());
+            }
+        });
+    }
+
+    @Benchmark
+    public void dtoPages(Blackhole bh) {
+        Long last = null;
+        while (true) {
+            List<MemberListDto> page = memberService.findMemberPage(last, pageSize);
+            page.forEach(bh::consume);
+            if (page.size() < pageSize) {
+                break;
+            }
+            last = page.get(page.size() - 1).getId();
+        }
+    }
+
+    @Benchmark
+    public void dtoStream(Blackhole bh) {
+        memberService.exportMembers(bh::consume);
+    }
+}
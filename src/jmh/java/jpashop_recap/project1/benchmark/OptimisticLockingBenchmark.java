@@ -0,0 +1,88 @@
+package jpashop_recap.project1.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jpashop_recap.project1.domain.item.Book;
+import jpashop_recap.project1.domain.item.Item;
+import jpashop_recap.project1.service.RetryingTransactionExecutor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 엔티티를 읽고 고쳐서 쓰는 재고 차감(read-modify-write)을 경합 정도별로 비교
+ * - optimistic: @Version + RetryingTransactionExecutor (충돌하면 백오프 후 재시도, 예산/횟수 초과 시 실패)
+ * - pessimistic: SELECT ... FOR UPDATE로 상품 row를 잡고 차감 (충돌 없이 줄 서서 기다림)
+ * items가 적을수록 같은 상품에 몰려 경합이 심해진다. 실패(재시도 소진, 락 대기 초과)는 failed 카운터로 따로 센다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+public class OptimisticLockingBenchmark {
+
+    @Param({"optimistic", "pessimistic"})
+    public String locking;
+
+    @Param({"1", "16", "256"})
+    public int items;
+
+    private BenchmarkContext context;
+    private EntityManager em;
+    private TransactionTemplate transactionTemplate;
+    private RetryingTransactionExecutor retryingTransactionExecutor;
+    private Long[] itemIds;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Failures {
+        public long failed;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext(WebApplicationType.NONE,
+                "spring.datasource.url=jdbc:h2:mem:locking-benchmark;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                "spring.datasource.hikari.maximum-pool-size=32");
+        em = context.getBean(EntityManager.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        retryingTransactionExecutor = context.getBean(RetryingTransactionExecutor.class);
+
+        itemIds = transactionTemplate.execute(status -> {
+            Long[] ids = new Long[items];
+            for (int i = 0; i < items; i++) {
+                Book book = new Book();
+                book.setName("BOOK" + i);
+                book.setPrice(10000);
+                book.setStockQuantity(Integer.MAX_VALUE);
+                em.persist(book);
+                ids[i] = book.getId();
+            }
+            return ids;
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void removeStock(Failures failures) {
+        Long itemId = itemIds[ThreadLocalRandom.current().nextInt(itemIds.length)];
+        try {
+            if ("optimistic".equals(locking)) {
+                retryingTransactionExecutor.run("benchmark", () -> em.find(Item.class, itemId).removeStock(1));
+            } else {
+                transactionTemplate.executeWithoutResult(status ->
+                        em.find(Item.class, itemId, LockModeType.PESSIMISTIC_WRITE).removeStock(1));
+            }
+        } catch (ConcurrencyFailureException e) {
+            failures.failed++;
+        }
+    }
+}
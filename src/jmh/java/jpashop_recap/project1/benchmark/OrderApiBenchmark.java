@@ -0,0 +1,110 @@
+package jpashop_recap.project1.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpashop_recap.project1.api.OrderApiController;
+import jpashop_recap.project1.api.OrderSimpleApiController;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 주문 API 조회 전략별 end-to-end 비교 (조회 → DTO 변환 → Jackson 직렬화)
+ * - 처리량: ops/s
+ * - 할당량: gc 프로파일러 (gc.alloc.rate.norm = 호출당 할당 바이트)
+ * - 호출당 SQL 수: statements 카운터 / 호출 수
+ * 웹 요청이 아니라 OSIV가 없으므로, 각 호출을 읽기 전용 트랜잭션으로 감싸 지연 로딩이 가능하게 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderApiBenchmark {
+
+    @Param({"100", "1000"})
+    public int orders;
+
+    @Param({"2", "10"})
+    public int itemsPerOrder;
+
+    private BenchmarkContext context;
+    private OrderApiController orderApi;
+    private OrderSimpleApiController simpleOrderApi;
+    private ObjectMapper objectMapper;
+    private TransactionTemplate readOnly;
+    private Statistics statistics;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SqlCounter {
+        public long statements;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext();
+        context.seed(orders, itemsPerOrder);
+
+        orderApi = context.getBean(OrderApiController.class);
+        simpleOrderApi = context.getBean(OrderSimpleApiController.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        statistics = context.statistics();
+
+        readOnly = new TransactionTemplate(context.getBean(TransactionTemplate.class).getTransactionManager());
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] ordersV2(SqlCounter counter) {
+        return call(counter, () -> orderApi.ordersV2());
+    }
+
+    @Benchmark
+    public byte[] ordersV3(SqlCounter counter) {
+        return call(counter, () -> orderApi.ordersV3());
+    }
+
+    @Benchmark
+    public byte[] ordersV3_1(SqlCounter counter) {
+        return call(counter, () -> orderApi.ordersV3_page(0, orders));
+    }
+
+    @Benchmark
+    public byte[] ordersV4(SqlCounter counter) {
+        return call(counter, () -> orderApi.ordersV4());
+    }
+
+    @Benchmark
+    public byte[] ordersV5(SqlCounter counter) {
+        return call(counter, () -> orderApi.ordersV5());
+    }
+
+    @Benchmark
+    public byte[] simpleOrdersV2(SqlCounter counter) {
+        return call(counter, () -> simpleOrderApi.ordersV2());
+    }
+
+    @Benchmark
+    public byte[] simpleOrdersV3(SqlCounter counter) {
+        return call(counter, () -> simpleOrderApi.ordersV3());
+    }
+
+    private byte[] call(SqlCounter counter, Supplier<Object> endpoint) {
+        long before = statistics.getPrepareStatementCount();
+        byte[] json = readOnly.execute(status -> {
+            try {
+                return objectMapper.writeValueAsBytes(endpoint.get());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        counter.statements += statistics.getPrepareStatementCount() - before;
+        return json;
+    }
+}
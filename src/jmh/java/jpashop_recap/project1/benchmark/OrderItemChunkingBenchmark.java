@@ -0,0 +1,62 @@
+package jpashop_recap.project1.benchmark;
+
+import jpashop_recap.project1.repository.query.OrderQueryRepository;
+import jpashop_recap.project1.repository.query.dto.OrderQueryDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * v5(IN 절 하나 + groupingBy)와 IN 절 분할 병렬 조회(LongKeyMap)의 비교
+ * 분할 조회는 청크마다 작업 스레드의 읽기 전용 트랜잭션으로 읽으므로, 호출도 트랜잭션 밖에서 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderItemChunkingBenchmark {
+
+    @Param({"5000", "20000"})
+    public int orders;
+
+    @Param({"500", "2000"})
+    public int inChunkSize;
+
+    private BenchmarkContext context;
+    private OrderQueryRepository orderQueryRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext(WebApplicationType.NONE, "jpashop.query.in-chunk-size=" + inChunkSize);
+        context.seed(orders, 2);
+        orderQueryRepository = context.getBean(OrderQueryRepository.class);
+
+        //측정 전에 두 방식의 결과가 같은지 확인한다.
+        List<OrderQueryDto> v5 = orderQueryRepository.findAllByDto_optimization();
+        List<OrderQueryDto> chunked = orderQueryRepository.findAllByDto_chunked();
+        if (v5.size() != chunked.size()) {
+            throw new IllegalStateException("주문 수가 다릅니다. v5=" + v5.size() + ", chunked=" + chunked.size());
+        }
+        for (int i = 0; i < v5.size(); i++) {
+            if (v5.get(i).getOrderItems().size() != chunked.get(i).getOrderItems().size()) {
+                throw new IllegalStateException("주문상품 수가 다릅니다. orderId=" + v5.get(i).getOrderId());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> v5() {
+        return orderQueryRepository.findAllByDto_optimization();
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> chunked() {
+        return orderQueryRepository.findAllByDto_chunked();
+    }
+}
@@ -0,0 +1,63 @@
+package jpashop_recap.project1.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jpashop_recap.project1.domain.item.Book;
+import jpashop_recap.project1.service.StockBucketService;
+import jpashop_recap.project1.service.StockService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 인기 상품 하나에 동시 주문이 몰릴 때 재고 차감 처리량 비교
+ * - buckets=0: 기존 방식 (item row 하나에 조건부 UPDATE)
+ * - buckets=N: 분산 재고 모드 (N개 버킷 row 중 하나에 조건부 UPDATE)
+ * 스레드 수(@Threads)보다 버킷이 적으면 같은 row의 락을 기다리므로, N이 늘수록 처리량이 늘어나야 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+public class ShardedStockBenchmark {
+
+    @Param({"0", "1", "4", "16"})
+    public int buckets;
+
+    private BenchmarkContext context;
+    private StockService stockService;
+    private Long itemId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        //스레드마다 커넥션이 필요하고, 락 대기가 길어질 수 있으므로 풀 크기와 락 타임아웃을 늘린다.
+        context = new BenchmarkContext(WebApplicationType.NONE,
+                "spring.datasource.url=jdbc:h2:mem:stock-benchmark;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                "spring.datasource.hikari.maximum-pool-size=32");
+        stockService = context.getBean(StockService.class);
+
+        EntityManager em = context.getBean(EntityManager.class);
+        itemId = context.getBean(TransactionTemplate.class).execute(status -> {
+            Book book = new Book();
+            book.setName("HOT BOOK");
+            book.setPrice(10000);
+            book.setStockQuantity(Integer.MAX_VALUE / 2);
+            em.persist(book);
+            return book.getId();
+        });
+        if (buckets > 0) {
+            context.getBean(StockBucketService.class).shard(itemId, buckets);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void reserve() {
+        stockService.reserve(itemId, 1);
+    }
+}
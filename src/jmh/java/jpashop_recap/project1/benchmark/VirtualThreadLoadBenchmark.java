@@ -0,0 +1,62 @@
+package jpashop_recap.project1.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 플랫폼 스레드(Tomcat 스레드 풀) vs 가상 스레드 요청 처리 비교
+ * 200개 스레드가 동시에 /api/v5/orders를 호출하고, SampleTime 모드로 p99 등 응답 시간 분포를 본다.
+ * 두 모드 모두 HikariCP 풀 크기(20)는 같으므로, 차이는 스레드 풀 대기에서 나온다.
+ * virtual 모드는 Java 21에서 실행해야 한다. (./gradlew jmh -PvirtualThreads)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(200)
+public class VirtualThreadLoadBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"1000"})
+    public int orders;
+
+    private BenchmarkContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        //Java 21 미만이면 spring.threads.virtual.enabled가 조용히 무시되어 platform 모드를 두 번 재게 된다.
+        if (mode.equals("virtual") && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("virtual 모드는 Java 21 이상에서 실행해야 합니다. 현재 Java " + Runtime.version().feature());
+        }
+        context = new BenchmarkContext(WebApplicationType.SERVLET,
+                "server.port=0",
+                "server.tomcat.threads.max=50",
+                "spring.datasource.hikari.maximum-pool-size=20",
+                "spring.threads.virtual.enabled=" + mode.equals("virtual"));
+        context.seed(orders, 2);
+
+        client = HttpClient.newHttpClient();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + context.localPort() + "/api/v5/orders"))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int ordersV5() throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
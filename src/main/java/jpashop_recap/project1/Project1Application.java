@@ -1,6 +1,7 @@
 package jpashop_recap.project1;
 
 import com.fasterxml.jackson.datatype.hibernate5.jakarta.Hibernate5JakartaModule;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
@@ -12,10 +13,11 @@ public class Project1Application {
 		SpringApplication.run(Project1Application.class, args);
 	}
 
+	//엄격 모드(jpashop.jackson.strict-lazy-loading)에서는 강제 지연 로딩을 끄고, 초기화되지 않은 프록시 직렬화를 예외로 처리한다.
 	@Bean
-	Hibernate5JakartaModule hibernate5Module() {
+	Hibernate5JakartaModule hibernate5Module(@Value("${jpashop.jackson.strict-lazy-loading:false}") boolean strictLazyLoading) {
 		Hibernate5JakartaModule hibernate5JakartaModule = new Hibernate5JakartaModule();
-		hibernate5JakartaModule.configure(Hibernate5JakartaModule.Feature.FORCE_LAZY_LOADING, true);
+		hibernate5JakartaModule.configure(Hibernate5JakartaModule.Feature.FORCE_LAZY_LOADING, !strictLazyLoading);
 		return hibernate5JakartaModule;
 	}
 
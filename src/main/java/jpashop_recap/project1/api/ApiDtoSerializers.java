@@ -0,0 +1,192 @@
+package jpashop_recap.project1.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import jpashop_recap.project1.domain.Address;
+import jpashop_recap.project1.repository.query.dto.OrderItemQueryDto;
+import jpashop_recap.project1.repository.query.dto.OrderQueryDto;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * API DTO 전용 직렬화기 모음
+ * 리플렉션 기반 BeanSerializer 대신 필드를 직접 써서, 큰 주문 목록을 직렬화할 때의 할당과 오버헤드를 줄인다.
+ * DTO는 엔티티가 아니라 값만 가지고 있으므로 직렬화 중에 지연 로딩이 일어나지 않는다.
+ * 출력하는 JSON 필드 이름과 순서는 기존(@Data getter 기반)과 같다.
+ * DTO에 필드를 추가하면 여기에도 추가해야 한다.
+ */
+public final class ApiDtoSerializers {
+
+    private ApiDtoSerializers() {}
+
+    public static SimpleModule module() {
+        SimpleModule module = new SimpleModule("ApiDtoSerializers");
+        module.addSerializer(OrderApiController.Result.class, new ResultSerializer<>(OrderApiController.Result.class, OrderApiController.Result::getData));
+        module.addSerializer(OrderSimpleApiController.Result.class, new ResultSerializer<>(OrderSimpleApiController.Result.class, OrderSimpleApiController.Result::getData));
+        module.addSerializer(MemberApiController.Result.class, new ResultSerializer<>(MemberApiController.Result.class, MemberApiController.Result::getData));
+        module.addSerializer(OrderApiController.OrderDto.class, new OrderDtoSerializer());
+        module.addSerializer(OrderApiController.OrderItemDto.class, new OrderItemDtoSerializer());
+        module.addSerializer(OrderSimpleApiController.SimpleOrderDto.class, new SimpleOrderDtoSerializer());
+        module.addSerializer(OrderQueryDto.class, new OrderQueryDtoSerializer());
+        module.addSerializer(OrderItemQueryDto.class, new OrderItemQueryDtoSerializer());
+        return module;
+    }
+
+    //Result<T> { data } - data 타입은 다양하므로 값의 실제 타입 직렬화기에 맡긴다.
+    private static class ResultSerializer<R> extends StdSerializer<R> {
+
+        private final Function<R, Object> data;
+
+        private ResultSerializer(Class<R> type, Function<R, Object> data) {
+            super(type);
+            this.data = data;
+        }
+
+        @Override
+        public void serialize(R value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            provider.defaultSerializeField("data", data.apply(value), gen);
+            gen.writeEndObject();
+        }
+    }
+
+    private static class OrderDtoSerializer extends StdSerializer<OrderApiController.OrderDto> {
+
+        private OrderDtoSerializer() {
+            super(OrderApiController.OrderDto.class);
+        }
+
+        @Override
+        public void serialize(OrderApiController.OrderDto value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            writeNumberField(gen, "orderId", value.getOrderId());
+            gen.writeStringField("name", value.getName());
+            provider.defaultSerializeField("orderDate", value.getOrderDate(), gen);
+            writeEnumField(gen, "orderStatus", value.getOrderStatus());
+            writeAddressField(gen, "address", value.getAddress());
+            gen.writeFieldName("orderItems");
+            writeList(gen, value.getOrderItems(), item -> writeOrderItem(gen, item.getItemName(), item.getOrderPrice(), item.getCount()));
+            gen.writeEndObject();
+        }
+    }
+
+    private static class OrderItemDtoSerializer extends StdSerializer<OrderApiController.OrderItemDto> {
+
+        private OrderItemDtoSerializer() {
+            super(OrderApiController.OrderItemDto.class);
+        }
+
+        @Override
+        public void serialize(OrderApiController.OrderItemDto value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeOrderItem(gen, value.getItemName(), value.getOrderPrice(), value.getCount());
+        }
+    }
+
+    private static class SimpleOrderDtoSerializer extends StdSerializer<OrderSimpleApiController.SimpleOrderDto> {
+
+        private SimpleOrderDtoSerializer() {
+            super(OrderSimpleApiController.SimpleOrderDto.class);
+        }
+
+        @Override
+        public void serialize(OrderSimpleApiController.SimpleOrderDto value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            writeNumberField(gen, "orderId", value.getOrderId());
+            gen.writeStringField("name", value.getName());
+            provider.defaultSerializeField("orderDate", value.getOrderDate(), gen);
+            writeEnumField(gen, "orderStatus", value.getOrderStatus());
+            writeAddressField(gen, "address", value.getAddress());
+            gen.writeEndObject();
+        }
+    }
+
+    private static class OrderQueryDtoSerializer extends StdSerializer<OrderQueryDto> {
+
+        private OrderQueryDtoSerializer() {
+            super(OrderQueryDto.class);
+        }
+
+        @Override
+        public void serialize(OrderQueryDto value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            writeNumberField(gen, "orderId", value.getOrderId());
+            gen.writeStringField("name", value.getName());
+            provider.defaultSerializeField("orderDate", value.getOrderDate(), gen);
+            writeEnumField(gen, "orderStatus", value.getOrderStatus());
+            writeAddressField(gen, "address", value.getAddress());
+            gen.writeFieldName("orderItems");
+            writeList(gen, value.getOrderItems(), item -> writeOrderItem(gen, item.getItemName(), item.getOrderPrice(), item.getCount()));
+            gen.writeEndObject();
+        }
+    }
+
+    //orderId는 @JsonIgnore 대상이라 쓰지 않는다.
+    private static class OrderItemQueryDtoSerializer extends StdSerializer<OrderItemQueryDto> {
+
+        private OrderItemQueryDtoSerializer() {
+            super(OrderItemQueryDto.class);
+        }
+
+        @Override
+        public void serialize(OrderItemQueryDto value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeOrderItem(gen, value.getItemName(), value.getOrderPrice(), value.getCount());
+        }
+    }
+
+    //==공통 메서드==//
+    private interface IOConsumer<T> {
+        void accept(T t) throws IOException;
+    }
+
+    private static <T> void writeList(JsonGenerator gen, List<T> list, IOConsumer<T> writer) throws IOException {
+        if (list == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartArray();
+        for (T element : list) {
+            writer.accept(element);
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writeOrderItem(JsonGenerator gen, String itemName, int orderPrice, int count) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("itemName", itemName);
+        gen.writeNumberField("orderPrice", orderPrice);
+        gen.writeNumberField("count", count);
+        gen.writeEndObject();
+    }
+
+    private static void writeNumberField(JsonGenerator gen, String name, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNullField(name);
+        } else {
+            gen.writeNumberField(name, value);
+        }
+    }
+
+    private static void writeEnumField(JsonGenerator gen, String name, Enum<?> value) throws IOException {
+        if (value == null) {
+            gen.writeNullField(name);
+        } else {
+            gen.writeStringField(name, value.name());
+        }
+    }
+
+    private static void writeAddressField(JsonGenerator gen, String name, Address address) throws IOException {
+        if (address == null) {
+            gen.writeNullField(name);
+            return;
+        }
+        gen.writeObjectFieldStart(name);
+        gen.writeStringField("city", address.getCity());
+        gen.writeStringField("street", address.getStreet());
+        gen.writeStringField("zipcode", address.getZipcode());
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,100 @@
+package jpashop_recap.project1.api;
+
+import jpashop_recap.project1.domain.ItemSearch;
+import jpashop_recap.project1.repository.query.dto.ItemCatalogDto;
+import jpashop_recap.project1.service.ItemService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 상품 카탈로그 API
+ * 공통 컬럼(id, 종류, 이름, 가격, 재고)만 DTO로 조회하고, dtype(A/B/M)과 이름 접두어(namePrefix)로 거른다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class ItemApiController {
+
+    private final ItemService itemService;
+
+    /**
+     * 커서(keyset) 페이징
+     * ex) /api/v1/items?dtype=B&namePrefix=JPA&limit=50 → /api/v1/items?dtype=B&namePrefix=JPA&cursor={nextCursor}&limit=50
+     */
+    @GetMapping("/api/v1/items")
+    public CursorResult items(@ModelAttribute ItemSearch itemSearch,
+                              @RequestParam(value = "cursor", required = false) String cursor,
+                              @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        PageParams.limit("limit", limit);
+        String lastName = null;
+        Long lastId = null;
+        if (StringUtils.hasText(cursor)) {
+            String[] decoded = decodeCursor(cursor);
+            lastId = Long.valueOf(decoded[0]);
+            lastName = decoded[1];
+        }
+        List<ItemCatalogDto> items = itemService.findCatalogAfter(itemSearch, lastName, lastId, limit);
+
+        //limit만큼 꽉 채워서 왔을 때만 다음 페이지가 있을 수 있다.
+        String nextCursor = items.size() < limit ? null : encodeCursor(items.get(items.size() - 1));
+        return new CursorResult(items, nextCursor);
+    }
+
+    /**
+     * 페이지 번호 페이징 ex) /api/v1/items/page?dtype=A&page=2&size=20
+     */
+    @GetMapping("/api/v1/items/page")
+    public PageResult itemsPage(@ModelAttribute ItemSearch itemSearch,
+                                @RequestParam(value = "page", defaultValue = "0") int page,
+                                @RequestParam(value = "size", defaultValue = "100") int size) {
+        Slice<ItemCatalogDto> items = itemService.findCatalogPage(itemSearch, PageParams.offset("page", page),
+                PageParams.limit("size", size));
+        return new PageResult(items.getContent(), items.getNumber(), items.hasNext());
+    }
+
+    //커서는 정렬 키(이름, id)를 "id:이름" 형태로 Base64에 감싼다. id에는 ':'가 없으므로 첫 ':'로 나눈다.
+    private String encodeCursor(ItemCatalogDto last) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((last.getId() + ":" + last.getName()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String[] decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 2);
+            if (decoded.length != 2) {
+                throw PageParams.invalidCursor(null);
+            }
+            Long.parseLong(decoded[0]);
+            return decoded;
+        } catch (IllegalArgumentException e) {
+            throw PageParams.invalidCursor(e);
+        }
+    }
+
+    //-------------------------------------- DTO --------------------------------------
+
+    @Data
+    @AllArgsConstructor
+    static class CursorResult<T> {
+        private T data;
+        private String nextCursor;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class PageResult<T> {
+        private T data;
+        private int page;
+        private boolean hasNext;
+    }
+}
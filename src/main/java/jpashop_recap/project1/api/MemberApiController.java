@@ -1,13 +1,23 @@
 package jpashop_recap.project1.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jpashop_recap.project1.domain.Member;
+import jpashop_recap.project1.repository.query.dto.MemberListDto;
+import jpashop_recap.project1.service.DataVersions;
 import jpashop_recap.project1.service.MemberService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,6 +31,8 @@ import java.util.stream.Collectors;
 public class MemberApiController {
 
     private final MemberService memberService;
+    private final DataVersions dataVersions;
+    private final ObjectMapper objectMapper;
 
     /*
      * version1) 매개변수로 직접 엔티티를 받는 방식.
@@ -54,8 +66,12 @@ public class MemberApiController {
     /**
      * 회원 조회 version2 - DTO (매나 version1은 엔티티 노출 방식이라 사용X)
      */
+    //회원 버전이 그대로면 If-None-Match에 304로 응답한다. (조회 쿼리, 직렬화 없음. 서버가 한 대일 때만)
     @GetMapping("/api/v2/members")
-    public Result membersV2() {
+    public Result membersV2(WebRequest request) {
+        if (dataVersions.isEnabled() && request.checkNotModified(dataVersions.etag("members", DataVersions.Aggregate.MEMBER))) {
+            return null;
+        }
         List<Member> members = memberService.findMembers();
         //stream: 객체에 대해서 연산 수행을 가능하게 함(ex. map)
         //members에 존재하는 여러 Member 객체에 대해 모두 MemberDto 객체를 생성하고, 그것들을 List로 저장한다.
@@ -66,6 +82,41 @@ public class MemberApiController {
         return new Result(collect);
     }
 
+    /**
+     * 회원 조회 version3 - DTO로 바로 조회 + 커서(keyset) 페이징
+     * 엔티티(주소, orders 컬렉션 프록시, 변경 감지 스냅샷)를 만들지 않고 id, 이름, 도시만 읽는다.
+     * ex) /api/v3/members?limit=100 → /api/v3/members?lastMemberId={nextLastMemberId}&limit=100
+     */
+    @GetMapping("/api/v3/members")
+    public MemberPageResult membersV3(@RequestParam(value = "lastMemberId", required = false) Long lastMemberId,
+                                      @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        List<MemberListDto> members = memberService.findMemberPage(lastMemberId, PageParams.limit("limit", limit));
+        //limit만큼 꽉 채워서 왔을 때만 다음 페이지가 있을 수 있다.
+        Long next = members.size() < limit ? null : members.get(members.size() - 1).getId();
+        return new MemberPageResult(members, next);
+    }
+
+    /**
+     * 회원 export - NDJSON 스트리밍 (회원 수와 관계없이 메모리 사용량이 일정하다.)
+     */
+    @GetMapping(value = "/api/v3/members/export", produces = "application/x-ndjson")
+    public void membersV3_export(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        OutputStream out = response.getOutputStream();
+        ObjectWriter writer = objectMapper.writerFor(MemberListDto.class);
+        memberService.exportMembers(m -> {
+            try {
+                out.write(writer.writeValueAsBytes(m));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
+
    //-------------------------------------- DTO --------------------------------------
 
     /**
@@ -121,4 +172,14 @@ public class MemberApiController {
     static class Result<T> {
         private T data;
     }
+
+    /**
+     * 커서 페이징 결과 - nextLastMemberId를 다음 요청의 lastMemberId로 넘긴다. (null이면 마지막 페이지)
+     */
+    @Data
+    @AllArgsConstructor
+    static class MemberPageResult<T> {
+        private T data;
+        private Long nextLastMemberId;
+    }
 }
@@ -1,18 +1,30 @@
 package jpashop_recap.project1.api;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletResponse;
 import jpashop_recap.project1.domain.*;
 import jpashop_recap.project1.repository.OrderRepository;
 import jpashop_recap.project1.repository.query.OrderQueryRepository;
+import jpashop_recap.project1.repository.query.dto.OrderQueryDto;
+import jpashop_recap.project1.service.DataVersions;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.RequiredArgsConstructor;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -33,6 +45,10 @@ public class OrderApiController {
 
     private final OrderRepository orderRepository;
     private final OrderQueryRepository orderQueryRepository;
+    private final ObjectMapper objectMapper;
+    private final DataVersions dataVersions;
+
+    private static final int EXPORT_WINDOW_SIZE = 1000;
 
     @GetMapping("/api/v2/orders")
     public Result ordersV2() {
@@ -71,7 +87,8 @@ public class OrderApiController {
     //defaultValue: 0 => 만약 쿼리 파라미터가 존재하지 않으면 default는 0으로 둔다는 뜻.
     public Result ordersV3_page(@RequestParam(value = "offset", defaultValue = "0") int offset,
                                         @RequestParam(value = "limit", defaultValue = "100") int limit) {
-        List<Order> orders = orderRepository.findAllWithMemberDelivery_2(offset, limit);
+        List<Order> orders = orderRepository.findAllWithMemberDelivery_2(
+                PageParams.offset("offset", offset), PageParams.limit("limit", limit));
         List<OrderDto> collect = orders.stream()
                 .map(o -> new OrderDto(o))
                 .collect(Collectors.toList());
@@ -79,16 +96,93 @@ public class OrderApiController {
         return new Result(collect);
     }
 
+    /**
+     * 커서(keyset) 기반 페이징 - v3.1과 같은 페치 조인 + BatchSize 방식
+     * offset 대신 이전 응답의 nextCursor를 넘겨주면 그 다음 주문부터 조회한다.
+     * ex) /api/v3.2/orders?limit=100 → /api/v3.2/orders?cursor={nextCursor}&limit=100
+     */
+    @GetMapping("/api/v3.2/orders")
+    public CursorResult ordersV3_cursor(@RequestParam(value = "cursor", required = false) String cursor,
+                                        @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        PageParams.limit("limit", limit);
+        List<Order> orders = orderRepository.findAllWithMemberDelivery_cursor(decodeCursor(cursor), limit);
+        List<OrderDto> collect = orders.stream()
+                .map(o -> new OrderDto(o))
+                .collect(Collectors.toList());
+
+        //limit만큼 꽉 채워서 왔을 때만 다음 페이지가 있을 수 있다.
+        String nextCursor = orders.size() < limit ? null : encodeCursor(orders.get(orders.size() - 1).getId());
+        return new CursorResult(collect, nextCursor);
+    }
+
+    //클라이언트가 커서 내용에 의존하지 않도록 order_id를 Base64로 감싸서 전달한다.
+    private String encodeCursor(Long orderId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(orderId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Long decodeCursor(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw PageParams.invalidCursor(e);
+        }
+    }
+
     @GetMapping("/api/v4/orders")
     public Result ordersV4() {
         return new Result(orderQueryRepository.findOrderQueryDtos());
     }
 
+    /**
+     * 응답에 회원 이름/주소, 상품 이름, 주문이 들어가므로 세 버전이 모두 그대로일 때만 304로 응답한다. (서버가 한 대일 때만)
+     */
     @GetMapping("/api/v5/orders")
+    public Result ordersV5(WebRequest request) {
+        if (dataVersions.isEnabled() && request.checkNotModified(dataVersions.etag("orders",
+                DataVersions.Aggregate.MEMBER, DataVersions.Aggregate.ITEM, DataVersions.Aggregate.ORDER))) {
+            return null;
+        }
+        return ordersV5();
+    }
+
     public Result ordersV5() {
         return new Result(orderQueryRepository.findAllByDto_optimization());
     }
 
+    /**
+     * version5.1: version5 + IN 절 분할 병렬 조회
+     */
+    @GetMapping("/api/v5.1/orders")
+    public Result ordersV5_chunked() {
+        return new Result(orderQueryRepository.findAllByDto_chunked());
+    }
+
+    /**
+     * version5 export - NDJSON 스트리밍
+     * 전체 주문을 한 줄에 하나씩 JSON으로 응답 스트림에 바로 써서, 주문 수와 관계없이 메모리 사용량이 일정하다.
+     */
+    @GetMapping(value = "/api/v5/orders/export", produces = "application/x-ndjson")
+    public void ordersV5_export(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        OutputStream out = response.getOutputStream();
+        ObjectWriter writer = objectMapper.writerFor(OrderQueryDto.class);
+        orderQueryRepository.streamAllByDto(EXPORT_WINDOW_SIZE, o -> {
+            try {
+                out.write(writer.writeValueAsBytes(o));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
+
     /**
      * version6: 쿼리를 한번에 조인할 수는 있으나, 페이징이 불가능하고 중복 데이터 문제로 인해
      * version5보다 느릴 수도 있다. 따라서, 별도로 필요할 때 공부할 예정.
@@ -137,4 +231,11 @@ public class OrderApiController {
     static class Result<T> {
         private T data;
     }
+
+    @Data
+    @AllArgsConstructor
+    static class CursorResult<T> {
+        private T data;
+        private String nextCursor;
+    }
 }
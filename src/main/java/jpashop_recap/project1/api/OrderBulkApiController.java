@@ -0,0 +1,161 @@
+package jpashop_recap.project1.api;
+
+import jpashop_recap.project1.domain.OrderSearch;
+import jpashop_recap.project1.domain.OrderStatus;
+import jpashop_recap.project1.service.BulkCancelService;
+import jpashop_recap.project1.service.BulkOrderService;
+import jpashop_recap.project1.service.OrderIntakeService;
+import jpashop_recap.project1.service.dto.BulkCancelResult;
+import jpashop_recap.project1.service.dto.BulkOrderCommand;
+import jpashop_recap.project1.service.dto.BulkOrderResult;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * 대량 주문 API - 주문 여러 개(각 주문마다 주문상품 여러 개)를 한 번의 요청으로 등록한다.
+ * 대량 취소 API - 주문 id 목록 또는 검색 조건에 맞는 주문을 한 번의 요청으로 취소한다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class OrderBulkApiController {
+
+    private final BulkOrderService bulkOrderService;
+    private final BulkCancelService bulkCancelService;
+    private final OrderIntakeService orderIntakeService;
+
+    static final int MAX_BULK_SIZE = 1000;
+
+    /**
+     * 대량 주문 - 결과는 요청 순서대로. 요청 하나가 청크 트랜잭션을 끝없이 이어가지 않게 주문 수를 MAX_BULK_SIZE로 제한한다.
+     */
+    @PostMapping("/api/v1/orders/bulk")
+    public BulkOrderResponse createOrdersBulk(@RequestBody BulkOrderRequest request) {
+        if (request.getOrders() == null || request.getOrders().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "orders가 필요합니다.");
+        }
+        if (request.getOrders().size() > MAX_BULK_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "orders는 " + MAX_BULK_SIZE + "개까지 요청할 수 있습니다.");
+        }
+        if (request.getOrders().contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "orders에 null이 있습니다.");
+        }
+        List<BulkOrderCommand> commands = request.getOrders().stream()
+                .map(o -> new BulkOrderCommand(o.getMemberId(), o.getLines().stream()
+                        .map(l -> new BulkOrderCommand.Line(l.getItemId(), l.getCount()))
+                        .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+
+        List<BulkOrderResult> results = bulkOrderService.order(commands);
+        int successCount = (int) results.stream().filter(BulkOrderResult::isSuccess).count();
+        return new BulkOrderResponse(successCount, results.size() - successCount, results);
+    }
+
+    /**
+     * 대량 취소 - orderIds가 있으면 해당 주문만, 없으면 이름이 memberName과 정확히 같은 회원의 주문 상태 주문을 모두 취소한다.
+     * 조건 없는 요청({})이 전체 주문을 취소하지 않도록, 둘 다 없으면 400으로 거절한다.
+     * 요청 하나가 트랜잭션을 끝없이 이어가지 않게 orderIds 개수와 검색된 주문 수도 MAX_BULK_SIZE로 제한한다.
+     */
+    @PostMapping("/api/v1/orders/bulk-cancel")
+    public BulkCancelResponse cancelOrdersBulk(@RequestBody BulkCancelRequest request) {
+        boolean hasOrderIds = request.getOrderIds() != null && !request.getOrderIds().isEmpty();
+        if (hasOrderIds && request.getOrderIds().contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "orderIds에 null이 있습니다.");
+        }
+        if (hasOrderIds && request.getOrderIds().size() > MAX_BULK_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "orderIds는 " + MAX_BULK_SIZE + "개까지 요청할 수 있습니다.");
+        }
+        if (!hasOrderIds && !StringUtils.hasText(request.getMemberName())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "orderIds 또는 memberName이 필요합니다.");
+        }
+        List<BulkCancelResult> results;
+        if (hasOrderIds) {
+            results = bulkCancelService.cancel(request.getOrderIds());
+        } else {
+            OrderSearch orderSearch = new OrderSearch();
+            orderSearch.setMemberName(request.getMemberName());
+            orderSearch.setOrderStatus(OrderStatus.ORDER);
+            if (bulkCancelService.countCancelable(orderSearch) > MAX_BULK_SIZE) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "취소할 주문이 " + MAX_BULK_SIZE + "건을 넘습니다. orderIds로 나눠서 요청하세요.");
+            }
+            results = bulkCancelService.cancel(orderSearch, MAX_BULK_SIZE);
+        }
+        int successCount = (int) results.stream().filter(BulkCancelResult::isSuccess).count();
+        return new BulkCancelResponse(successCount, results.size() - successCount, results);
+    }
+
+    /**
+     * 비동기 주문 접수 (group commit 모드) - 주문이 배치 트랜잭션으로 커밋되면 응답한다.
+     */
+    @PostMapping("/api/v1/orders/intake")
+    public CompletableFuture<CreateOrderResponse> createOrderIntake(@RequestBody CreateOrderRequest request) {
+        return orderIntakeService.submit(request.getMemberId(), request.getItemId(), request.getCount())
+                .thenApply(CreateOrderResponse::new);
+    }
+
+    //-------------------------------------- DTO --------------------------------------
+
+    @Data
+    static class BulkOrderRequest {
+        private List<OrderRequest> orders = new ArrayList<>();
+    }
+
+    @Data
+    static class OrderRequest {
+        private Long memberId;
+        private List<OrderLineRequest> lines = new ArrayList<>();
+    }
+
+    @Data
+    static class OrderLineRequest {
+        private Long itemId;
+        private int count;
+    }
+
+    @Data
+    static class BulkCancelRequest {
+        private List<Long> orderIds = new ArrayList<>();
+        private String memberName;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class BulkCancelResponse {
+        private int successCount;
+        private int failureCount;
+        private List<BulkCancelResult> results;
+    }
+
+    @Data
+    static class CreateOrderRequest {
+        private Long memberId;
+        private Long itemId;
+        private int count;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CreateOrderResponse {
+        private Long orderId;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class BulkOrderResponse {
+        private int successCount;
+        private int failureCount;
+        private List<BulkOrderResult> results;
+    }
+}
@@ -0,0 +1,57 @@
+package jpashop_recap.project1.api;
+
+import jpashop_recap.project1.domain.OrderStatus;
+import jpashop_recap.project1.repository.query.OrderRevenueRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * 매출 집계 API - 모두 DB GROUP BY 한 번으로 끝난다. (주문/주문상품 엔티티를 로딩하지 않는다.)
+ * 기간 파라미터는 yyyy-MM-dd이고 to는 포함하지 않는다. 기본값은 최근 30일(오늘 포함)이다.
+ * ex) /api/v1/revenue/daily?from=2024-08-01&to=2024-09-01&status=ORDER
+ */
+@RestController
+@RequiredArgsConstructor
+public class OrderRevenueApiController {
+
+    private final OrderRevenueRepository orderRevenueRepository;
+
+    @GetMapping("/api/v1/revenue/status")
+    public Result revenueByStatus() {
+        return new Result(orderRevenueRepository.findRevenueByStatus());
+    }
+
+    @GetMapping("/api/v1/revenue/daily")
+    public Result revenueByDay(@RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                               @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                               @RequestParam(value = "status", required = false) OrderStatus status) {
+        LocalDate end = to != null ? to : LocalDate.now().plusDays(1);
+        LocalDate start = from != null ? from : end.minusDays(30);
+        return new Result(orderRevenueRepository.findRevenueByDay(start, end, status));
+    }
+
+    @GetMapping("/api/v1/revenue/members")
+    public Result revenueByMember(@RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                  @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                  @RequestParam(value = "status", required = false) OrderStatus status,
+                                  @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        LocalDate end = to != null ? to : LocalDate.now().plusDays(1);
+        LocalDate start = from != null ? from : end.minusDays(30);
+        return new Result(orderRevenueRepository.findRevenueByMember(start, end, status, PageParams.limit("limit", limit)));
+    }
+
+    //-------------------------------------- DTO --------------------------------------
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private T data;
+    }
+}
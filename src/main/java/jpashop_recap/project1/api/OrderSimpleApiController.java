@@ -4,12 +4,16 @@ import jpashop_recap.project1.domain.Address;
 import jpashop_recap.project1.domain.Order;
 import jpashop_recap.project1.domain.OrderSearch;
 import jpashop_recap.project1.domain.OrderStatus;
+import jpashop_recap.project1.domain.OrderSummary;
 import jpashop_recap.project1.repository.OrderRepository;
 import jpashop_recap.project1.service.OrderService;
+import jpashop_recap.project1.service.OrderSummaryService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
@@ -25,6 +29,7 @@ public class OrderSimpleApiController {
 
     private final OrderService orderService;
     private final OrderRepository orderRepository;
+    private final OrderSummaryService orderSummaryService;
 
     /**
      * 간단한 주문 조회 Version2 - DTO로 매핑
@@ -64,6 +69,30 @@ public class OrderSimpleApiController {
         return new Result(collect);
     }
 
+    /**
+     * 간단한 주문 조회 Version5 - 주문 요약 테이블(order_summary) 조회
+     * 주문 생성/취소 때 미리 펼쳐서 저장해둔 요약 테이블을 조인 없이 PK 순서로 읽는다.
+     * ex) /api/v5/simple-orders?limit=100 → /api/v5/simple-orders?lastOrderId={마지막 orderId}&limit=100
+     */
+    @GetMapping("/api/v5/simple-orders")
+    public Result ordersV5(@RequestParam(value = "lastOrderId", required = false) Long lastOrderId,
+                           @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        List<SimpleOrderDto> collect = orderSummaryService.findPage(lastOrderId, PageParams.limit("limit", limit)).stream()
+                .map(s -> new SimpleOrderDto(s))
+                .collect(Collectors.toList());
+
+        return new Result(collect);
+    }
+
+    /**
+     * 주문 요약 재구성(backfill) - 범위를 주지 않으면 전체
+     */
+    @PostMapping("/api/v5/simple-orders/rebuild")
+    public RebuildResponse rebuildSummaries(@RequestParam(value = "fromOrderId", defaultValue = "1") Long fromOrderId,
+                                            @RequestParam(value = "toOrderId", defaultValue = "" + Long.MAX_VALUE) Long toOrderId) {
+        return new RebuildResponse(orderSummaryService.rebuild(fromOrderId, toOrderId));
+    }
+
     /**
      * Version4도 존재하는데, 이건 강의자료로 별도로 공부하기.
      * => 웬만한 문제는 Version3으로 해결이 되는데 특수한 경우 사용하는 버전이기 때문이다.
@@ -87,6 +116,20 @@ public class OrderSimpleApiController {
             orderStatus = order.getStatus();
             address = order.getDelivery().getAddress();
         }
+
+        public SimpleOrderDto(OrderSummary summary) {
+            orderId = summary.getOrderId();
+            name = summary.getMemberName();
+            orderDate = summary.getOrderDate();
+            orderStatus = summary.getStatus();
+            address = summary.getAddress();
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class RebuildResponse {
+        private int rebuilt;
     }
 
     @Data
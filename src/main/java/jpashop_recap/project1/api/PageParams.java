@@ -0,0 +1,34 @@
+package jpashop_recap.project1.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * 목록 API의 페이징 파라미터 검사
+ * limit이 0 이하이면 setMaxResults/마지막 원소 조회(get(-1))에서 500이 나고,
+ * 너무 크면 요청 하나가 테이블을 통째로 읽으므로 둘 다 400으로 거절한다.
+ */
+final class PageParams {
+
+    static final int MAX_LIMIT = 1000;
+
+    private PageParams() {}
+
+    static int limit(String name, int value) {
+        if (value <= 0 || value > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, name + "는 1 ~ " + MAX_LIMIT + " 사이여야 합니다.");
+        }
+        return value;
+    }
+
+    static int offset(String name, int value) {
+        if (value < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, name + "는 0 이상이어야 합니다.");
+        }
+        return value;
+    }
+
+    static ResponseStatusException invalidCursor(Throwable cause) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "잘못된 커서입니다.", cause);
+    }
+}
@@ -0,0 +1,69 @@
+package jpashop_recap.project1.api;
+
+import jpashop_recap.project1.service.SalesRollupService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * 상품별 일 매출 API - 원본 주문 테이블이 아니라 롤업 테이블(item_daily_sales)만 읽는다.
+ * 기간 파라미터는 yyyy-MM-dd이고 to는 포함하지 않는다. 기본값은 최근 30일(오늘 포함)이다.
+ * ex) /api/v1/sales/items/daily?from=2024-08-01&to=2024-09-01&itemId=1
+ */
+@RestController
+@RequiredArgsConstructor
+public class SalesRollupApiController {
+
+    private final SalesRollupService salesRollupService;
+
+    @GetMapping("/api/v1/sales/items/daily")
+    public Result itemSalesDaily(@RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                 @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                 @RequestParam(value = "itemId", required = false) Long itemId) {
+        LocalDate end = to != null ? to : LocalDate.now().plusDays(1);
+        LocalDate start = from != null ? from : end.minusDays(30);
+        return new Result(salesRollupService.findDaily(start, end, itemId));
+    }
+
+    @GetMapping("/api/v1/sales/items/top")
+    public Result topItems(@RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                           @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                           @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        LocalDate end = to != null ? to : LocalDate.now().plusDays(1);
+        LocalDate start = from != null ? from : end.minusDays(30);
+        return new Result(salesRollupService.findTopItems(start, end, PageParams.limit("limit", limit)));
+    }
+
+    /**
+     * 롤업 재구성(catch-up) - 기간을 주지 않으면 원본 주문이 있는 전체 기간
+     */
+    @PostMapping("/api/v1/sales/rebuild")
+    public RebuildResponse rebuild(@RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                   @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (from == null || to == null) {
+            return new RebuildResponse(salesRollupService.rebuildAll());
+        }
+        return new RebuildResponse(salesRollupService.rebuild(from, to));
+    }
+
+    //-------------------------------------- DTO --------------------------------------
+
+    @Data
+    @AllArgsConstructor
+    static class RebuildResponse {
+        private int rebuilt;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private T data;
+    }
+}
@@ -0,0 +1,57 @@
+package jpashop_recap.project1.api;
+
+import jpashop_recap.project1.service.StockBucketService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 분산 재고 모드 관리 API
+ * 주문이 몰리는 상품만 골라서 재고를 N개 버킷으로 나눈다. ex) POST /api/v1/items/1/stock/shard?buckets=16
+ */
+@RestController
+@RequiredArgsConstructor
+public class StockApiController {
+
+    private final StockBucketService stockBucketService;
+
+    @GetMapping("/api/v1/items/{itemId}/stock")
+    public StockResponse stock(@PathVariable("itemId") Long itemId) {
+        return response(itemId);
+    }
+
+    //buckets를 주지 않으면 jpashop.stock.sharding.default-buckets
+    @PostMapping("/api/v1/items/{itemId}/stock/shard")
+    public StockResponse shard(@PathVariable("itemId") Long itemId,
+                               @RequestParam(value = "buckets", required = false) Integer buckets) {
+        stockBucketService.shard(itemId, buckets != null ? buckets : stockBucketService.getDefaultBuckets());
+        return response(itemId);
+    }
+
+    @PostMapping("/api/v1/items/{itemId}/stock/unshard")
+    public StockResponse unshard(@PathVariable("itemId") Long itemId) {
+        stockBucketService.unshard(itemId);
+        return response(itemId);
+    }
+
+    @PostMapping("/api/v1/items/{itemId}/stock/rebalance")
+    public StockResponse rebalance(@PathVariable("itemId") Long itemId) {
+        stockBucketService.rebalance(itemId);
+        return response(itemId);
+    }
+
+    private StockResponse response(Long itemId) {
+        return new StockResponse(itemId, stockBucketService.isSharded(itemId), stockBucketService.available(itemId));
+    }
+
+    //-------------------------------------- DTO --------------------------------------
+
+    @Data
+    @AllArgsConstructor
+    static class StockResponse {
+        private Long itemId;
+        private boolean sharded;
+        private int stockQuantity;      //전체 재고 (버킷 합계 포함)
+    }
+}
@@ -0,0 +1,18 @@
+package jpashop_recap.project1.config;
+
+import io.micrometer.core.instrument.Metrics;
+import org.ehcache.event.CacheEvent;
+import org.ehcache.event.CacheEventListener;
+
+/**
+ * 2차 캐시의 eviction/expiry 횟수를 메트릭으로 기록한다. (jpashop.cache.events{type=EVICTED|EXPIRED})
+ * hit/miss/put 횟수는 hibernate.generate_statistics=true일 때 hibernate-micrometer가 hibernate.second.level.cache.* 메트릭으로 제공한다.
+ * Ehcache가 ehcache.xml을 보고 직접 생성하는 객체라서 빈 주입 대신 global registry를 사용한다.
+ */
+public class CacheEventMetrics implements CacheEventListener<Object, Object> {
+
+    @Override
+    public void onEvent(CacheEvent<?, ?> event) {
+        Metrics.counter("jpashop.cache.events", "type", event.getType().name()).increment();
+    }
+}
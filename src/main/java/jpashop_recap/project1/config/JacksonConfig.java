@@ -0,0 +1,26 @@
+package jpashop_recap.project1.config;
+
+import com.fasterxml.jackson.databind.Module;
+import jpashop_recap.project1.api.ApiDtoSerializers;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    //API DTO 전용 직렬화기 등록 (Module 빈은 스프링 부트가 ObjectMapper에 자동 등록한다.)
+    @Bean
+    Module apiDtoSerializerModule() {
+        return ApiDtoSerializers.module();
+    }
+
+    //엄격 모드: 모듈 등록이 끝난 뒤에 추가해야 Hibernate5JakartaModule보다 먼저 프록시/컬렉션을 가로챈다.
+    @Bean
+    @ConditionalOnProperty(prefix = "jpashop.jackson", name = "strict-lazy-loading", havingValue = "true")
+    Jackson2ObjectMapperBuilderCustomizer strictLazyLoadingCustomizer() {
+        return builder -> builder.postConfigurer(objectMapper -> objectMapper.setSerializerFactory(
+                objectMapper.getSerializerFactory().withAdditionalSerializers(new StrictLazyLoadingSerializers())));
+    }
+}
@@ -0,0 +1,43 @@
+package jpashop_recap.project1.config;
+
+import jpashop_recap.project1.monitoring.SqlRequestStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 조회 쿼리를 나눠서 동시에 실행할 때 사용하는 스레드 풀
+ * 스레드 수와 대기열 크기를 제한해서 커넥션 풀을 다 잡아먹지 않도록 하고,
+ * 대기열이 꽉 차면 요청한 스레드가 직접 실행한다. (CallerRunsPolicy)
+ * 작업을 넣는 시점의 요청 SQL 통계(SqlRequestStats)를 작업 스레드로 넘겨서, 나눠 실행한 쿼리도 요청의 SQL 수/N+1 검사에 포함되게 한다.
+ */
+@Configuration
+public class QueryExecutorConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService orderItemQueryExecutor(
+            @Value("${jpashop.query.in-chunk-parallelism:4}") int parallelism) {
+        AtomicInteger sequence = new AtomicInteger();
+        return new ThreadPoolExecutor(parallelism, parallelism,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(parallelism * 4),
+                r -> {
+                    Thread thread = new Thread(r, "order-item-query-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy()) {
+            //submit()도 요청 스레드에서 execute()를 호출하므로 여기서 통계를 붙잡는다.
+            @Override
+            public void execute(Runnable command) {
+                super.execute(SqlRequestStats.wrap(command));
+            }
+        };
+    }
+}
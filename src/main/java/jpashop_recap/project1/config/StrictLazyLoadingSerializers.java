@@ -0,0 +1,114 @@
+package jpashop_recap.project1.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleSerializers;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import com.fasterxml.jackson.databind.type.MapLikeType;
+import com.fasterxml.jackson.databind.type.MapType;
+import com.fasterxml.jackson.databind.type.CollectionLikeType;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 엄격 모드 직렬화기 (jpashop.jackson.strict-lazy-loading=true)
+ * 초기화되지 않은 지연 로딩 프록시/컬렉션이 응답에 섞여 들어오면, 조용히 쿼리를 날리는 대신 예외를 던진다.
+ * => 엔티티가 API 응답으로 새어 나가는 코드를 개발 단계에서 바로 찾을 수 있다.
+ * 이미 초기화된 프록시/컬렉션은 실제 값으로 직렬화한다.
+ */
+public class StrictLazyLoadingSerializers extends SimpleSerializers {
+
+    @Override
+    public JsonSerializer<?> findSerializer(SerializationConfig config, JavaType type, BeanDescription beanDesc) {
+        if (HibernateProxy.class.isAssignableFrom(type.getRawClass())) {
+            return new ProxySerializer();
+        }
+        return null;
+    }
+
+    @Override
+    public JsonSerializer<?> findCollectionSerializer(SerializationConfig config, CollectionType type, BeanDescription beanDesc,
+                                                      TypeSerializer elementTypeSerializer, JsonSerializer<Object> elementValueSerializer) {
+        return persistentCollection(type);
+    }
+
+    @Override
+    public JsonSerializer<?> findCollectionLikeSerializer(SerializationConfig config, CollectionLikeType type, BeanDescription beanDesc,
+                                                          TypeSerializer elementTypeSerializer, JsonSerializer<Object> elementValueSerializer) {
+        return persistentCollection(type);
+    }
+
+    @Override
+    public JsonSerializer<?> findMapSerializer(SerializationConfig config, MapType type, BeanDescription beanDesc,
+                                               JsonSerializer<Object> keySerializer, TypeSerializer elementTypeSerializer,
+                                               JsonSerializer<Object> elementValueSerializer) {
+        return persistentCollection(type);
+    }
+
+    @Override
+    public JsonSerializer<?> findMapLikeSerializer(SerializationConfig config, MapLikeType type, BeanDescription beanDesc,
+                                                   JsonSerializer<Object> keySerializer, TypeSerializer elementTypeSerializer,
+                                                   JsonSerializer<Object> elementValueSerializer) {
+        return persistentCollection(type);
+    }
+
+    private JsonSerializer<?> persistentCollection(JavaType type) {
+        if (PersistentCollection.class.isAssignableFrom(type.getRawClass())) {
+            return new PersistentCollectionSerializer();
+        }
+        return null;
+    }
+
+    private static class ProxySerializer extends StdSerializer<HibernateProxy> {
+
+        private ProxySerializer() {
+            super(HibernateProxy.class);
+        }
+
+        @Override
+        public void serialize(HibernateProxy value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (value.getHibernateLazyInitializer().isUninitialized()) {
+                throw JsonMappingException.from(gen, "초기화되지 않은 프록시를 직렬화하려고 했습니다: "
+                        + value.getHibernateLazyInitializer().getEntityName()
+                        + "#" + value.getHibernateLazyInitializer().getInternalIdentifier()
+                        + " (엔티티 대신 DTO를 반환하거나 fetch join으로 미리 조회하세요.)");
+            }
+            provider.defaultSerializeValue(value.getHibernateLazyInitializer().getImplementation(), gen);
+        }
+    }
+
+    private static class PersistentCollectionSerializer extends StdSerializer<Object> {
+
+        private PersistentCollectionSerializer() {
+            super(Object.class);
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            PersistentCollection<?> collection = (PersistentCollection<?>) value;
+            if (!collection.wasInitialized()) {
+                throw JsonMappingException.from(gen, "초기화되지 않은 컬렉션을 직렬화하려고 했습니다: " + collection.getRole()
+                        + " (엔티티 대신 DTO를 반환하거나 fetch join으로 미리 조회하세요.)");
+            }
+            if (value instanceof Map<?, ?> map) {
+                gen.writeStartObject();
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    provider.defaultSerializeField(String.valueOf(entry.getKey()), entry.getValue(), gen);
+                }
+                gen.writeEndObject();
+                return;
+            }
+            gen.writeStartArray();
+            for (Object element : (Collection<?>) value) {
+                provider.defaultSerializeValue(element, gen);
+            }
+            gen.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package jpashop_recap.project1.config;
+
+import jpashop_recap.project1.monitoring.SqlStatsInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final SqlStatsInterceptor sqlStatsInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        //요청별 SQL 수 집계 (정적 리소스 제외)
+        registry.addInterceptor(sqlStatsInterceptor)
+                .excludePathPatterns("/css/**", "/js/**", "/favicon.ico", "/error");
+    }
+}
@@ -0,0 +1,149 @@
+package jpashop_recap.project1.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * primary + replica 커넥션 풀 구성 (jpashop.datasource.routing.enabled=true 일 때만)
+ * 커넥션 풀은 대상마다 따로 두고, hikaricp.connections.* 메트릭은 pool 태그(primary, replica-0, ...)로 구분된다.
+ * - OSIV(spring.jpa.open-in-view)를 끄지 않으면 기동하지 않는다.
+ *   OSIV는 요청 내내 영속성 컨텍스트와 커넥션을 붙잡고 있어서, 먼저 연 readOnly 트랜잭션의 replica 커넥션으로 뒤의 쓰기까지 나간다.
+ */
+@Slf4j
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+@ConditionalOnProperty(prefix = "jpashop.datasource.routing", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    private static final String HEARTBEAT_TABLE = "replication_heartbeat";
+
+    private final ReplicaRoutingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, JdbcTemplate> replicaTemplates = new HashMap<>();
+    private JdbcTemplate primaryTemplate;
+    private ReplicaRoutingDataSource routingDataSource;
+    private boolean heartbeatTableReady;    //스케줄러 스레드에서만 사용
+
+    public ReplicaRoutingConfig(ReplicaRoutingProperties properties, MeterRegistry meterRegistry,
+                                @Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        if (openInView) {
+            throw new IllegalStateException(
+                    "jpashop.datasource.routing.enabled=true 이면 spring.jpa.open-in-view=false 로 설정해야 합니다.");
+        }
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        primaryTemplate = new JdbcTemplate(primary);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReplicaRoutingDataSource.PRIMARY, primary);
+
+        List<String> replicaKeys = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            ReplicaRoutingProperties.Replica replica = properties.getReplicas().get(i);
+            String key = "replica-" + i;
+
+            HikariDataSource replicaDataSource = new HikariDataSource();
+            replicaDataSource.setPoolName(key);
+            replicaDataSource.setJdbcUrl(replica.getUrl());
+            replicaDataSource.setUsername(replica.getUsername());
+            replicaDataSource.setPassword(replica.getPassword());
+            replicaDataSource.setDriverClassName(dataSourceProperties.getDriverClassName());
+            replicaDataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            replicaDataSource.setReadOnly(true);
+            replicaDataSource.setInitializationFailTimeout(-1);     //replica가 죽어있어도 서버는 뜨도록
+            replicaDataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+            targets.put(key, replicaDataSource);
+            replicaKeys.add(key);
+            replicaTemplates.put(key, new JdbcTemplate(replicaDataSource));
+        }
+
+        routingDataSource = new ReplicaRoutingDataSource(replicaKeys, meterRegistry);
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(primary);
+        routingDataSource.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * replica 상태 확인 - 접속이 안 되거나 복제 지연이 maxLagMillis를 넘으면 제외한다.
+     */
+    @Scheduled(fixedDelayString = "${jpashop.datasource.routing.check-interval-millis:1000}")
+    public void checkReplicas() {
+        if (routingDataSource == null) {
+            return;
+        }
+        if (properties.isLagCheck()) {
+            beat();
+        }
+        replicaTemplates.forEach((key, template) -> {
+            boolean healthy;
+            try {
+                if (properties.isLagCheck()) {
+                    Timestamp beatAt = template.queryForObject(
+                            "select beat_at from " + HEARTBEAT_TABLE + " where id = 1", Timestamp.class);
+                    long lag = beatAt == null ? Long.MAX_VALUE : System.currentTimeMillis() - beatAt.getTime();
+                    healthy = lag <= properties.getMaxLagMillis();
+                } else {
+                    template.queryForObject("select 1", Integer.class);
+                    healthy = true;
+                }
+            } catch (RuntimeException e) {
+                healthy = false;
+            }
+            routingDataSource.setAvailable(key, healthy);
+        });
+    }
+
+    //primary의 heartbeat 시각을 갱신한다. replica에 복제되어 도착한 시각과의 차이가 복제 지연이다.
+    //테이블은 처음 성공할 때 한 번만 만들고 (기동 시 primary가 내려가 있으면 다음 주기에 다시 시도), 이후에는 row만 갱신한다.
+    private void beat() {
+        try {
+            if (!heartbeatTableReady) {
+                primaryTemplate.execute("create table if not exists " + HEARTBEAT_TABLE +
+                        " (id int primary key, beat_at timestamp)");
+                heartbeatTableReady = true;
+            }
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            if (primaryTemplate.update("update " + HEARTBEAT_TABLE + " set beat_at = ? where id = 1", now) == 0) {
+                primaryTemplate.update("insert into " + HEARTBEAT_TABLE + " (id, beat_at) values (1, ?)", now);
+            }
+        } catch (RuntimeException e) {
+            //primary가 다시 만들어졌을 수 있으므로 다음 주기에 테이블부터 확인한다.
+            heartbeatTableReady = false;
+            log.warn("replication heartbeat 갱신 실패", e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package jpashop_recap.project1.config.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Transactional(readOnly = true)인 트랜잭션은 사용 가능한 replica 중 하나로(라운드 로빈), 나머지는 primary로 보낸다.
+ * 사용 가능한 replica가 없으면(접속 불가, 복제 지연 초과) primary로 fallback 한다.
+ * 트랜잭션의 readOnly 여부는 커넥션을 실제로 얻는 시점에 알 수 있으므로 LazyConnectionDataSourceProxy로 감싸서 사용한다.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final List<String> replicaKeys;
+    private final Map<String, Boolean> available = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Counter> routeCounters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public ReplicaRoutingDataSource(List<String> replicaKeys, MeterRegistry meterRegistry) {
+        this.replicaKeys = replicaKeys;
+        this.meterRegistry = meterRegistry;
+        //처음 상태 확인 전까지는 replica를 사용하지 않는다.
+        replicaKeys.forEach(key -> available.put(key, false));
+    }
+
+    public void setAvailable(String replicaKey, boolean isAvailable) {
+        available.put(replicaKey, isAvailable);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String key = PRIMARY;
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            key = nextAvailableReplica();
+        }
+        routeCounters.computeIfAbsent(key, k -> meterRegistry.counter("jpashop.datasource.route", "target", k))
+                .increment();
+        return key;
+    }
+
+    private String nextAvailableReplica() {
+        int size = replicaKeys.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            String key = replicaKeys.get((start + i) % size);
+            if (available.getOrDefault(key, false)) {
+                return key;
+            }
+        }
+        return PRIMARY;
+    }
+}
@@ -0,0 +1,39 @@
+package jpashop_recap.project1.config.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 읽기 전용 트랜잭션을 복제본(replica)으로 보내는 설정 (jpashop.datasource.routing.*)
+ * primary는 spring.datasource 설정을 그대로 사용한다.
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "jpashop.datasource.routing")
+public class ReplicaRoutingProperties {
+
+    private boolean enabled = false;
+
+    //복제 지연이 이 값보다 크면 해당 replica 대신 primary를 사용한다.
+    private long maxLagMillis = 1000;
+
+    //replica 상태(접속 가능 여부, 복제 지연) 확인 주기
+    private long checkIntervalMillis = 1000;
+
+    //primary의 heartbeat 테이블을 갱신하고 replica에서 읽어서 복제 지연을 잰다.
+    //복제가 구성되지 않은 로컬 테스트(H2 두 개)에서는 false로 두고 접속 여부만 확인한다.
+    private boolean lagCheck = true;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Getter @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -1,25 +1,30 @@
 package jpashop_recap.project1.controller;
 
+import jpashop_recap.project1.domain.ItemSearch;
 import jpashop_recap.project1.domain.item.Book;
-import jpashop_recap.project1.domain.item.Item;
 import jpashop_recap.project1.form.BookForm;
+import jpashop_recap.project1.repository.query.dto.ItemCatalogDto;
 import jpashop_recap.project1.service.ItemService;
+import jpashop_recap.project1.service.RetryingTransactionExecutor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.Banner;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
-
-import java.util.List;
+import org.springframework.web.bind.annotation.RequestParam;
 
 @Controller
 @RequiredArgsConstructor
 public class ItemController {
 
+    private static final int PAGE_SIZE = 100;
+
     private final ItemService itemService;
+    private final RetryingTransactionExecutor retryingTransactionExecutor;
 
     /**
      * 상품 등록 관련 GET, POST
@@ -46,10 +51,14 @@ public class ItemController {
     /**
      * 상품 목록 조회 GET
      */
+    //엔티티 대신 카탈로그 DTO를 페이지 단위로 조회한다. ex) /items?dtype=B&namePrefix=JPA&page=1
     @GetMapping("/items")
-    public String list(Model model) {
-        List<Item> items = itemService.findItems();
-        model.addAttribute("items", items);
+    public String list(@ModelAttribute("itemSearch") ItemSearch itemSearch,
+                       @RequestParam(value = "page", defaultValue = "0") int page, Model model) {
+        Slice<ItemCatalogDto> items = itemService.findCatalogPage(itemSearch, Math.max(page, 0), PAGE_SIZE);
+        model.addAttribute("items", items.getContent());
+        model.addAttribute("page", items.getNumber());
+        model.addAttribute("hasNext", items.hasNext());
         return "items/itemList";
     }
 
@@ -65,7 +74,7 @@ public class ItemController {
         form.setId(item.getId());
         form.setName(item.getName());
         form.setPrice(item.getPrice());
-        form.setStockQuantity(item.getStockQuantity());
+        form.setStockQuantity(itemService.findStockQuantity(itemId));     //분산 재고 모드면 버킷 합계
         form.setAuthor(item.getAuthor());
         form.setIsbn(item.getIsbn());
 
@@ -78,7 +87,9 @@ public class ItemController {
     //즉, GetMapping을 통해 만든 "form"을 updateItemForm.html로 넘기고
     //Post 시 사용자가 수정함으로써 변경된 form 객체를 다시 가져오는 것이다.
     public String updateItem(@PathVariable Long itemId, @ModelAttribute("form") BookForm form) {
-        itemService.updateItem(itemId, form.getName(), form.getPrice(), form.getStockQuantity());
+        //수정 중에 주문이 들어와 상품 버전이 바뀌면 충돌로 롤백되고, 새로 읽은 상품에 다시 반영한다.
+        retryingTransactionExecutor.run("updateItem",
+                () -> itemService.updateItem(itemId, form.getName(), form.getPrice(), form.getStockQuantity()));
         return "redirect:/items";
     }
 
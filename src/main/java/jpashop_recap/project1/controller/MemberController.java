@@ -3,21 +3,24 @@ package jpashop_recap.project1.controller;
 import jakarta.validation.Valid;
 import jpashop_recap.project1.domain.Address;
 import jpashop_recap.project1.domain.Member;
+import jpashop_recap.project1.repository.query.dto.MemberAddressListDto;
 import jpashop_recap.project1.service.MemberService;
 import jpashop_recap.project1.form.MemberForm;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
-
-import java.util.List;
+import org.springframework.web.bind.annotation.RequestParam;
 
 @Controller
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int PAGE_SIZE = 100;
+
     private final MemberService memberService;
 
     /**
@@ -54,10 +57,13 @@ public class MemberController {
     /**
      * 회원 목록 조회와 관련된 GET
      */
+    //엔티티 대신 DTO(id, 이름, 주소)를 페이지 단위로 조회한다. ex) /members?page=1
     @GetMapping("/members")
-    public String list(Model model) {
-        List<Member> members = memberService.findMembers();
-        model.addAttribute("members", members);
+    public String list(@RequestParam(value = "page", defaultValue = "0") int page, Model model) {
+        Slice<MemberAddressListDto> members = memberService.findMemberSlice(Math.max(page, 0), PAGE_SIZE);
+        model.addAttribute("members", members.getContent());
+        model.addAttribute("page", members.getNumber());
+        model.addAttribute("hasNext", members.hasNext());
         return "members/memberList";
     }
 }
@@ -6,13 +6,16 @@ import jpashop_recap.project1.domain.OrderSearch;
 import jpashop_recap.project1.domain.item.Item;
 import jpashop_recap.project1.service.ItemService;
 import jpashop_recap.project1.service.MemberService;
+import jpashop_recap.project1.service.OrderIntakeService;
 import jpashop_recap.project1.service.OrderService;
+import jpashop_recap.project1.service.RetryingTransactionExecutor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Controller
 @RequiredArgsConstructor
@@ -21,6 +24,8 @@ public class OrderController {
     private final OrderService orderService;
     private final MemberService memberService;
     private final ItemService itemService;
+    private final OrderIntakeService orderIntakeService;
+    private final RetryingTransactionExecutor retryingTransactionExecutor;
 
     @GetMapping(value = "/order")
     public String createForm(Model model) {
@@ -37,7 +42,15 @@ public class OrderController {
     //이 애노테이션을 활용하여 컨트롤러에서 활용 가능하다.
     public String order(@RequestParam("memberId") Long memberId, @RequestParam("itemId") Long itemId,
                         @RequestParam("count") int count) {
-        orderService.order(memberId, itemId, count);
+        //group commit 모드에서는 대기열에 넣고, 배치 트랜잭션이 커밋될 때까지 기다린다. (요청 스레드가 무한정 묶이지 않게 시간 제한)
+        if (orderIntakeService.isEnabled()) {
+            orderIntakeService.submit(memberId, itemId, count)
+                    .orTimeout(orderIntakeService.getWaitTimeoutMillis(), TimeUnit.MILLISECONDS)
+                    .join();
+        } else {
+            //락 대기 실패 같은 동시성 충돌은 트랜잭션을 처음부터 다시 실행한다.
+            retryingTransactionExecutor.run("order", () -> orderService.order(memberId, itemId, count));
+        }
         return "redirect:/";
     }
 
@@ -51,7 +64,8 @@ public class OrderController {
 
     @PostMapping(value = "/orders/{orderId}/cancel")
     public String cancelOrder(@PathVariable("orderId") Long orderId) {
-        orderService.cancelOrder(orderId);
+        //같은 주문을 동시에 취소하면 늦게 커밋하는 쪽이 버전 충돌로 다시 실행되고, 이미 취소된 주문이라 거절된다.
+        retryingTransactionExecutor.run("cancelOrder", () -> orderService.cancelOrder(orderId));
         return "redirect:/orders";
     }
 }
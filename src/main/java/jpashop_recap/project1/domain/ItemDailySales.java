@@ -0,0 +1,43 @@
+package jpashop_recap.project1.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+
+/**
+ * 상품별 일 매출 집계 테이블 (롤업)
+ * 대시보드가 order_item + orders 전체 이력을 매번 GROUP BY하지 않도록, 주문 생성/취소 때 (상품, 주문일) row에 증감분을 더해둔다.
+ * - 취소는 원래 주문일 row에 음수로 더한다. (재구성 작업이 원본 테이블에서 같은 값을 다시 만들 수 있도록)
+ * - 값은 취소되지 않은 주문(ORDER) 기준 순매출이다.
+ * row는 SalesRollupRepository의 MERGE(upsert)와 재구성 INSERT로만 쓴다.
+ */
+@Entity
+@Table(name = "item_daily_sales")
+@Getter
+public class ItemDailySales {
+
+    @EmbeddedId
+    private ItemDailySalesId id;
+
+    @Column(name = "units", nullable = false)
+    private long units;             //판매 수량 합계
+
+    @Column(name = "revenue", nullable = false)
+    private long revenue;           //주문 금액 합계 (주문가격 x 수량)
+
+    @Column(name = "order_lines", nullable = false)
+    private long orderLines;        //주문상품(order_item) 수
+
+    protected ItemDailySales() {}
+
+    //증감분(delta) 계산용. 영속 상태로 저장하지 않고 SalesRollupRepository.mergeDeltas에 넘긴다.
+    public ItemDailySales(ItemDailySalesId id) {
+        this.id = id;
+    }
+
+    //==비즈니스 로직==//
+    public void add(long units, long revenue, long orderLines) {
+        this.units += units;
+        this.revenue += revenue;
+        this.orderLines += orderLines;
+    }
+}
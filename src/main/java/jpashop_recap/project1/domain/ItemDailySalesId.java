@@ -0,0 +1,29 @@
+package jpashop_recap.project1.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+//상품별 일 매출 집계의 복합 키 (상품 id, 주문일)
+@Embeddable
+@Getter
+@EqualsAndHashCode
+public class ItemDailySalesId implements Serializable {
+
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    protected ItemDailySalesId() {}
+
+    public ItemDailySalesId(Long itemId, LocalDate salesDate) {
+        this.itemId = itemId;
+        this.salesDate = salesDate;
+    }
+}
@@ -0,0 +1,12 @@
+package jpashop_recap.project1.domain;
+
+import lombok.Getter;
+import lombok.Setter;
+
+//상품 카탈로그 검색 조건. dtype: 상품 종류(A: 앨범, B: 책, M: 영화), namePrefix: 이름 접두어
+@Getter @Setter
+public class ItemSearch {
+
+    private String dtype;
+    private String namePrefix;
+}
@@ -4,17 +4,26 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_member_name", columnNames = "name"))   //이름에 unique 인덱스 → 중복 검사 쿼리가 인덱스를 타고, 동시 가입도 DB가 막아준다.
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")   //2차 캐시 대상. 변경 감지로 수정되면 캐시도 함께 갱신된다.
 @Getter @Setter
 public class Member {
 
     //Id : 해당 변수를 pk로 지정. GeneratedValue : 번호를 자동으로 알아서 생성
     //Column : id 변수를 member_id로 구분해줌. (다른 엔티티의 id와 구별하기 위함.)
-    @Id @GeneratedValue
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @GenericGenerator(name = "member_seq_generator", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "member_seq"))
     @Column(name = "member_id")
     private Long id;
 
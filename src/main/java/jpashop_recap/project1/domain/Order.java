@@ -1,20 +1,28 @@
 package jpashop_recap.project1.domain;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders") //기본적으로 엔티티 이름이 DB 테이블 이름으로 사용된다.
+@Table(name = "orders", //기본적으로 엔티티 이름이 DB 테이블 이름으로 사용된다.
+        indexes = {@Index(name = "idx_orders_member_id", columnList = "member_id"),  //회원 id로 주문 검색
+                @Index(name = "idx_orders_order_date", columnList = "orderDate")})  //기간별 매출 집계
 //테이블명을 바꾼 이유는 SQL 작성에 ORDER 명령어가 존재하기 때문에 혼란을 피하기 위해 변경하였다.
 @Getter @Setter
 public class Order {
 
-    @Id @GeneratedValue
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq_generator")
+    @GenericGenerator(name = "order_seq_generator", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "orders_seq"))
     @Column(name = "order_id")
     private Long id;
 
@@ -47,6 +55,19 @@ public class Order {
     @Enumerated(EnumType.STRING)
     private OrderStatus status;
 
+    //주문 금액 합계 (비정규화). 주문상품을 추가할 때 함께 더하므로, 목록/집계에서 orderItems를 로딩하지 않아도 된다.
+    //int 곱셈/합계는 큰 주문에서 넘칠 수 있어 long으로 저장한다.
+    //취소해도 주문 금액은 그대로 두고, 매출 집계에서 상태(status)로 구분한다.
+    @Column(name = "total_price", nullable = false)
+    @Setter(AccessLevel.NONE)
+    private long totalPrice;
+
+    //낙관적 락 버전. 같은 주문을 동시에 취소하면 둘 다 ORDER 상태를 읽고 재고를 두 번 복구할 수 있는데,
+    //버전이 있으면 늦게 커밋하는 쪽이 충돌로 롤백되고, 다시 시도할 때는 이미 취소된 주문이라 거절된다.
+    @Version
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
 
     //==연관관계 메서드==//
     //Order Entity가 Member와 Delivery Entity 통제권을 가지고 있어서 Order를 통해 초기화해준다.
@@ -65,6 +86,7 @@ public class Order {
     public void addOrderItem(OrderItem orderItem) {
         orderItems.add(orderItem);
         orderItem.setOrder(this);   //Order에 존재하는 List에 OrderItem 정보를 추가하고, 해당 OrderItem을 set해준다.
+        totalPrice += orderItem.getTotalPrice();
     }
 
     //==생성 메서드==//
@@ -89,11 +111,7 @@ public class Order {
      * 주문 취소
      */
     public void cancel() {
-        if (delivery.getStatus() == DeliveryStatus.COMP) {
-            throw new IllegalStateException("이미 배송완료된 상품은 취소가 불가능합니다.");
-        }
-
-        this.setStatus(OrderStatus.CANCEL);
+        cancelWithoutStock();
         //Order에는 Item에 대한 변수가 없으므로 OrderItem Entity를 거쳐 재고를 다시 늘린다.
         for (OrderItem orderItem : orderItems) {
             orderItem.cancel();
@@ -101,13 +119,16 @@ public class Order {
     }
 
     /**
-     * 전체 금액 조회 로직
+     * 주문 취소 (재고 복구는 StockService가 따로 처리하는 경우)
      */
-    public int getTotalPrice() {
-        int totalPrice = 0;
-        for (OrderItem orderItem : orderItems) {
-            totalPrice += orderItem.getTotalPrice();
+    public void cancelWithoutStock() {
+        if (delivery.getStatus() == DeliveryStatus.COMP) {
+            throw new IllegalStateException("이미 배송완료된 상품은 취소가 불가능합니다.");
         }
-        return totalPrice;
+        if (status == OrderStatus.CANCEL) {
+            throw new IllegalStateException("이미 취소된 주문입니다.");
+        }
+
+        this.setStatus(OrderStatus.CANCEL);
     }
 }
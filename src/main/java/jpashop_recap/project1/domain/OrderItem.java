@@ -4,13 +4,18 @@ import jakarta.persistence.*;
 import jpashop_recap.project1.domain.item.Item;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 @Entity
 @Table(name = "order_item")
 @Getter @Setter
 public class OrderItem {
 
-    @Id @GeneratedValue
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orderItem_seq_generator")
+    @GenericGenerator(name = "orderItem_seq_generator", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "order_item_seq"))
     @Column(name = "orderItem_id")
     private Long id;
 
@@ -35,6 +40,15 @@ public class OrderItem {
         return orderItem;
     }
 
+    //재고를 StockService에서 미리 예약(차감)한 경우에 사용한다. 엔티티의 재고는 건드리지 않는다.
+    public static OrderItem createReservedOrderItem(Item item, int orderPrice, int count) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setItem(item);
+        orderItem.setOrderPrice(orderPrice);
+        orderItem.setCount(count);
+        return orderItem;
+    }
+
     //==비즈니스 로직==//
     /**
      * 주문 취소
@@ -46,7 +60,7 @@ public class OrderItem {
     /**
      * 해당 아이템의 총 금액 로직
      */
-    public int getTotalPrice() {
-        return getOrderPrice() * getCount();
+    public long getTotalPrice() {
+        return (long) getOrderPrice() * getCount();
     }
 }
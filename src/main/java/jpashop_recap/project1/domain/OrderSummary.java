@@ -0,0 +1,53 @@
+package jpashop_recap.project1.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 주문 목록 조회 전용 테이블 (읽기 모델)
+ * 간단한 주문 목록(회원명, 주문일시, 상태, 배송지)을 매번 orders + member + delivery 조인으로 만들지 않도록
+ * 주문 생성/취소 시 같은 트랜잭션에서 한 row로 펼쳐서 저장해둔다. PK가 order_id라서 목록은 PK 스캔 한 번이면 된다.
+ */
+@Entity
+@Table(name = "order_summary")
+@Getter
+public class OrderSummary {
+
+    //Order와 같은 id를 사용하므로 직접 할당한다.
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    private String memberName;
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Embedded
+    private Address address;    //배송지 주소
+
+    protected OrderSummary() {}
+
+    //JPQL new 생성자 조회(재구성 작업)에서도 사용한다.
+    public OrderSummary(Long orderId, String memberName, LocalDateTime orderDate, OrderStatus status, Address address) {
+        this.orderId = orderId;
+        this.memberName = memberName;
+        this.orderDate = orderDate;
+        this.status = status;
+        this.address = address;
+    }
+
+    //==생성 메서드==//
+    public static OrderSummary from(Order order) {
+        return new OrderSummary(order.getId(), order.getMember().getName(), order.getOrderDate(),
+                order.getStatus(), order.getDelivery().getAddress());
+    }
+
+    //==비즈니스 로직==//
+    public void changeStatus(OrderStatus status) {
+        this.status = status;
+    }
+}
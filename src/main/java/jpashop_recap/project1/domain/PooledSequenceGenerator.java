@@ -0,0 +1,30 @@
+package jpashop_recap.project1.domain;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * 엔티티 id 시퀀스 생성기
+ * 시퀀스를 한 번 호출할 때 할당 크기만큼 id를 미리 받아두고 메모리에서 나눠준다. (pooled-lo 방식)
+ * => persist 할 때마다 시퀀스를 호출하지 않으므로 DB 왕복이 줄고, INSERT 배치도 끊기지 않는다.
+ * @SequenceGenerator의 allocationSize는 컴파일 시점 상수라서, 할당 크기를 설정(jpashop.id.allocation_size)에서 읽도록 감쌌다.
+ * 값을 바꾸면 DB 시퀀스의 increment도 같이 바꿔야 한다. (ddl-auto: create면 자동으로 맞춰진다.)
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String ALLOCATION_SIZE_SETTING = "jpashop.id.allocation_size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        Object allocationSize = serviceRegistry.getService(ConfigurationService.class)
+                .getSettings()
+                .getOrDefault(ALLOCATION_SIZE_SETTING, DEFAULT_ALLOCATION_SIZE);
+        parameters.setProperty(INCREMENT_PARAM, allocationSize.toString());
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -0,0 +1,35 @@
+package jpashop_recap.project1.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+
+/**
+ * 상품 재고 버킷 (분산 재고 모드)
+ * 주문이 몰리는 상품은 item.stock_quantity 한 row에 UPDATE가 몰려서 row 락을 기다리는 시간이 처리량을 결정한다.
+ * 재고를 N개의 버킷 row로 나눠두면 주문마다 다른 row를 고치므로 동시에 N개까지 진행할 수 있다.
+ * 분산 재고 모드인 상품의 item.stock_quantity는 0이고, 실제 재고는 버킷 합계다.
+ */
+@Entity
+@Table(name = "item_stock_bucket")
+@Getter
+public class StockBucket {
+
+    @EmbeddedId
+    private StockBucketId id;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    protected StockBucket() {}
+
+    public StockBucket(Long itemId, int bucketNo, int quantity) {
+        this.id = new StockBucketId(itemId, bucketNo);
+        this.quantity = quantity;
+    }
+
+    //==비즈니스 로직==//
+    //재분배(rebalance) 시 사용. 버킷 row를 락으로 잡은 상태에서만 호출한다.
+    public void changeQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,28 @@
+package jpashop_recap.project1.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.io.Serializable;
+
+//재고 버킷의 복합 키 (상품 id, 버킷 번호)
+@Embeddable
+@Getter
+@EqualsAndHashCode
+public class StockBucketId implements Serializable {
+
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "bucket_no")
+    private int bucketNo;
+
+    protected StockBucketId() {}
+
+    public StockBucketId(Long itemId, int bucketNo) {
+        this.itemId = itemId;
+        this.bucketNo = bucketNo;
+    }
+}
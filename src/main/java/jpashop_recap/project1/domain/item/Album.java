@@ -7,9 +7,15 @@ import lombok.Setter;
 
 @Entity
 @Getter @Setter
-@DiscriminatorValue("A")    //"A"로 Album 엔티티임을 명시한다.
+@DiscriminatorValue(Album.DTYPE)    //"A"로 Album 엔티티임을 명시한다.
 public class Album extends Item {
 
+    public static final String DTYPE = "A";
+
     private String artist;
     private String etc;
+
+    public Album() {
+        super(DTYPE);
+    }
 }
@@ -7,9 +7,15 @@ import lombok.Setter;
 
 @Entity
 @Getter @Setter
-@DiscriminatorValue("B")    //"B"로 Album 엔티티임을 명시한다.
+@DiscriminatorValue(Book.DTYPE)    //"B"로 Album 엔티티임을 명시한다.
 public class Book extends Item {
 
+    public static final String DTYPE = "B";
+
     private String author;
     private String isbn;
+
+    public Book() {
+        super(DTYPE);
+    }
 }
@@ -1,24 +1,58 @@
 package jpashop_recap.project1.domain.item;
 
 import jakarta.persistence.*;
+import jpashop_recap.project1.domain.PooledSequenceGenerator;
 import jpashop_recap.project1.exception.NotEnoughStockException;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 @Entity
+@Table(name = "item",
+        indexes = @Index(name = "idx_item_dtype_name", columnList = "dtype, name"))  //상품 카탈로그: 종류 + 이름 접두어 검색, 이름순 정렬
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "item")   //2차 캐시 대상. 변경 감지로 수정되면 캐시도 함께 갱신된다.
 @Getter @Setter
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)   //상속받는 엔티티들의 모든 데이터들을 하나의 테이블로 병합.
 @DiscriminatorColumn(name = "dtype")    //상속 엔티티들의 칼럼 구분 변수
 public abstract class Item {
 
-    @Id @GeneratedValue
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq_generator")
+    @GenericGenerator(name = "item_seq_generator", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "item_seq"))
     @Column(name = "item_id")
     private Long id;
 
+    //구분 컬럼을 조회/검색 전용으로 매핑한다. 값은 @DiscriminatorValue로 저장되므로 직접 쓰지 않는다.
+    //새로 만든 엔티티도 저장 직후(영속성 컨텍스트, 2차 캐시)부터 값이 있도록, 하위 클래스가 생성자에서
+    //@DiscriminatorValue와 같은 상수(DTYPE)를 넘겨준다.
+    @Column(name = "dtype", insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private String dtype;
+
     private String name;
     private int price;
     private int stockQuantity;
 
+    //낙관적 락 버전. 엔티티를 읽고 고쳐서 쓰는 경로(상품 수정, 재고 재분배 등)는 커밋 시점에 버전을 비교해서,
+    //그 사이에 다른 트랜잭션이 바꾼 값을 덮어쓰지 않고 충돌(OptimisticLockException)로 실패한다.
+    //조건부 UPDATE(ItemRepository.removeStock/addStock)도 버전을 함께 올린다.
+    @Version
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
+    //지연 로딩 프록시용 (프록시는 dtype을 쓰지 않는다.)
+    protected Item() {
+    }
+
+    protected Item(String dtype) {
+        this.dtype = dtype;
+    }
+
     //==비즈니스 로직==//
     /**
      * 주문 취소 시 재고 늘리기
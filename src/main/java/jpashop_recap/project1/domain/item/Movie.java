@@ -7,9 +7,15 @@ import lombok.Setter;
 
 @Entity
 @Getter @Setter
-@DiscriminatorValue("M")    //"M"로 Album 엔티티임을 명시한다.
+@DiscriminatorValue(Movie.DTYPE)    //"M"로 Album 엔티티임을 명시한다.
 public class Movie extends Item {
 
+    public static final String DTYPE = "M";
+
     private String director;
     private String actor;
+
+    public Movie() {
+        super(DTYPE);
+    }
 }
@@ -0,0 +1,85 @@
+package jpashop_recap.project1.monitoring;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HTTP 요청 하나 동안 실행된 SQL 통계 (요청 스레드의 ThreadLocal에 보관)
+ * 같은 모양(파라미터가 ?인 SQL)의 쿼리가 몇 번 반복됐는지도 세어서 N+1 여부를 판단한다.
+ * 요청 하나의 조회를 여러 스레드로 나눠 실행하면(wrap) 같은 통계에 동시에 기록되므로 기록/집계는 동기화한다.
+ */
+@Getter
+public class SqlRequestStats {
+
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long rows;
+    private long jdbcNanos;
+    private final Map<String, Integer> countsByShape = new HashMap<>();
+
+    public static SqlRequestStats start() {
+        SqlRequestStats stats = new SqlRequestStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static SqlRequestStats current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 현재 스레드의 통계를 다른 스레드에서 실행할 작업에 넘긴다. 작업이 끝나면 그 스레드의 원래 통계로 되돌린다.
+     */
+    public static Runnable wrap(Runnable task) {
+        SqlRequestStats stats = current();
+        if (stats == null) {
+            return task;
+        }
+        return () -> {
+            SqlRequestStats previous = CURRENT.get();
+            CURRENT.set(stats);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    synchronized void recordStatement(String sql, long elapsedNanos) {
+        statements++;
+        jdbcNanos += elapsedNanos;
+        if (sql != null) {
+            countsByShape.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    synchronized void recordRow() {
+        rows++;
+    }
+
+    /**
+     * 가장 많이 반복된 SQL의 반복 횟수
+     */
+    public synchronized int maxRepeat() {
+        return countsByShape.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    public synchronized String mostRepeatedShape() {
+        return countsByShape.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse(null);
+    }
+}
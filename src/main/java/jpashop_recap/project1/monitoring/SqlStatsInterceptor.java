@@ -0,0 +1,95 @@
+package jpashop_recap.project1.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청마다 SQL 수, 읽은 row 수, JDBC 시간을 핸들러별 메트릭으로 남기고,
+ * 같은 SQL이 repeatThreshold번 넘게 반복되면 N+1 의심으로 경고 로그와 카운터를 남긴다.
+ * - jpashop.sql.statements / jpashop.sql.rows (요청당 분포), jpashop.sql.time, jpashop.sql.n_plus_one
+ * - 디버그 헤더(X-Sql-Statements 등)는 응답이 쓰이기 전까지 실행된 SQL 기준이다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqlStatsInterceptor implements HandlerInterceptor {
+
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+    public static final String ROWS_HEADER = "X-Sql-Rows";
+    public static final String TIME_HEADER = "X-Sql-Time-Ms";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${jpashop.sql-monitor.repeat-threshold:10}")
+    private int repeatThreshold;
+
+    @Value("${jpashop.sql-monitor.debug-header:false}")
+    private boolean debugHeader;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlRequestStats.start();
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        writeDebugHeaders(response);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        SqlRequestStats.clear();
+        if (stats == null) {
+            return;
+        }
+
+        String handlerName = handlerName(handler);
+        DistributionSummary.builder("jpashop.sql.statements").tag("handler", handlerName)
+                .register(meterRegistry).record(stats.getStatements());
+        DistributionSummary.builder("jpashop.sql.rows").tag("handler", handlerName)
+                .register(meterRegistry).record(stats.getRows());
+        Timer.builder("jpashop.sql.time").tag("handler", handlerName)
+                .register(meterRegistry).record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        if (stats.maxRepeat() > repeatThreshold) {
+            meterRegistry.counter("jpashop.sql.n_plus_one", "handler", handlerName).increment();
+            log.warn("N+1 의심: handler={}, statements={}, repeated={}x sql={}",
+                    handlerName, stats.getStatements(), stats.maxRepeat(), stats.mostRepeatedShape());
+        }
+    }
+
+    /**
+     * 응답 바디를 쓰기 직전에 호출된다. (SqlStatsResponseBodyAdvice, 뷰 렌더링 전 postHandle)
+     */
+    public void writeDebugHeaders(HttpServletResponse response) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (!debugHeader || stats == null || response.isCommitted()) {
+            return;
+        }
+        response.setHeader(STATEMENTS_HEADER, String.valueOf(stats.getStatements()));
+        response.setHeader(ROWS_HEADER, String.valueOf(stats.getRows()));
+        response.setHeader(TIME_HEADER, String.valueOf(TimeUnit.NANOSECONDS.toMillis(stats.getJdbcNanos())));
+    }
+
+    private String handlerName(Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        }
+        return "unknown";
+    }
+}
@@ -0,0 +1,34 @@
+package jpashop_recap.project1.monitoring;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy가 가로챈 JDBC 실행을 현재 요청의 SqlRequestStats에 기록한다.
+ * (p6spy-spring-boot-starter가 JdbcEventListener 빈을 자동으로 등록해준다.)
+ * 실행 시간과 읽은 row 수까지 알 수 있어서 Hibernate StatementInspector 대신 사용한다.
+ */
+@Component
+public class SqlStatsJdbcEventListener extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null) {
+            stats.recordStatement(statementInformation.getSql(), timeElapsedNanos);
+        }
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos,
+                                     boolean hasNext, SQLException e) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null && hasNext) {
+            stats.recordRow();
+        }
+    }
+}
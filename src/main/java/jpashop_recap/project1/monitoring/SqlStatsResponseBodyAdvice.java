@@ -0,0 +1,36 @@
+package jpashop_recap.project1.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * @RestController 응답은 postHandle 전에 바디가 써지므로, 바디를 쓰기 직전에 디버그 헤더를 붙인다.
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class SqlStatsResponseBodyAdvice implements ResponseBodyAdvice<Object> {
+
+    private final SqlStatsInterceptor sqlStatsInterceptor;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (response instanceof ServletServerHttpResponse servletResponse) {
+            sqlStatsInterceptor.writeDebugHeaders(servletResponse.getServletResponse());
+        }
+        return body;
+    }
+}
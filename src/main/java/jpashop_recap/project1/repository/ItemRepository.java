@@ -1,16 +1,33 @@
 package jpashop_recap.project1.repository;
 
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jpashop_recap.project1.domain.ItemSearch;
 import jpashop_recap.project1.domain.item.Item;
+import jpashop_recap.project1.domain.item.QItem;
+import jpashop_recap.project1.repository.query.dto.ItemCatalogDto;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 @RequiredArgsConstructor
 public class ItemRepository {
 
+    //재고 UPDATE가 속한 쿼리 공간. item 테이블로 알려주면 Hibernate가 item 2차 캐시 영역 전체와 item 쿼리 캐시를 비운다.
+    private static final String STOCK_QUERY_SPACE = "item_stock";
+
     private final EntityManager em;
 
     public void save(Item item) {
@@ -26,8 +43,119 @@ public class ItemRepository {
         return em.find(Item.class, id);
     }
 
+    public List<Item> findAllByIds(Collection<Long> ids) {
+        return em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * 재고 차감 - 엔티티를 읽지 않고 조건부 UPDATE 한 번으로 처리
+     * 재고가 충분할 때만 차감되므로, 동시에 주문이 들어와도 갱신 분실이나 음수 재고가 생기지 않는다.
+     * 버전도 함께 올려서, 그 전에 엔티티로 읽어둔 트랜잭션이 재고를 덮어쓰면 낙관적 락 충돌이 나게 한다.
+     * 2차 캐시는 이 상품만 비운다. (JPQL 벌크 UPDATE는 item 영역 전체를 비워서 주문이 들어올 때마다 모든 상품이 캐시에서 빠진다.)
+     * @return 변경된 row 수 (0이면 재고 부족 또는 없는 상품)
+     */
+    public int removeStock(Long itemId, int quantity) {
+        return updateStock(itemId, em.createNativeQuery("update item" +
+                " set stock_quantity = stock_quantity - ?, version = version + 1" +
+                " where item_id = ? and stock_quantity >= ?")
+                .setParameter(1, quantity)
+                .setParameter(2, itemId)
+                .setParameter(3, quantity));
+    }
+
+    public int addStock(Long itemId, int quantity) {
+        return updateStock(itemId, em.createNativeQuery("update item" +
+                " set stock_quantity = stock_quantity + ?, version = version + 1" +
+                " where item_id = ?")
+                .setParameter(1, quantity)
+                .setParameter(2, itemId));
+    }
+
+    //UPDATE 직후와 트랜잭션 종료 후에 한 번 더 비운다. 그 사이 다른 트랜잭션이 커밋 전 값을 읽어 캐시에 다시 넣었을 수 있다.
+    //목록 쿼리 캐시(findAll)는 id 목록만 담고 있어서 재고가 바뀌어도 그대로 쓸 수 있다.
+    private int updateStock(Long itemId, Query query) {
+        query.unwrap(NativeQuery.class).addSynchronizedQuerySpace(STOCK_QUERY_SPACE);
+        int updated = query.executeUpdate();
+        evict(itemId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(itemId);
+                }
+            });
+        }
+        return updated;
+    }
+
+    private void evict(Long itemId) {
+        em.getEntityManagerFactory().getCache().evict(Item.class, itemId);
+    }
+
     public List<Item> findAll() {
         return em.createQuery("select i from Item i", Item.class)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)     //쿼리 캐시 사용. item 테이블이 바뀌면 자동 무효화
                 .getResultList();
     }
+
+    //==상품 카탈로그 조회==//
+    //엔티티 대신 공통 컬럼만 DTO로 조회하고, 이름순(같은 이름은 id순)으로 정렬한다.
+    //dtype 조건이 있으면 (dtype, name) 인덱스로 종류 + 이름 접두어 범위만 읽고 정렬도 인덱스 순서를 그대로 쓴다.
+    //이름이 없는 상품은 커서 비교가 안 되므로, 두 페이징 방식이 같은 결과를 내도록 둘 다 제외한다.
+
+    //페이지 번호 페이징. 다음 페이지 여부를 알 수 있도록 호출하는 쪽에서 limit을 size + 1로 넘긴다.
+    public List<ItemCatalogDto> findCatalog(ItemSearch itemSearch, long offset, int limit) {
+        return catalogQuery(itemSearch)
+                .offset(offset)
+                .limit(limit)
+                .fetch();
+    }
+
+    /**
+     * 커서(keyset) 페이징 - 마지막으로 읽은 (이름, id) 다음부터 조회한다.
+     */
+    public List<ItemCatalogDto> findCatalogAfter(ItemSearch itemSearch, String lastName, Long lastId, int limit) {
+        return catalogQuery(itemSearch)
+                .where(after(lastName, lastId))
+                .limit(limit)
+                .fetch();
+    }
+
+    private JPAQuery<ItemCatalogDto> catalogQuery(ItemSearch itemSearch) {
+        QItem item = QItem.item;
+        return new JPAQueryFactory(em)
+                .select(Projections.constructor(ItemCatalogDto.class,
+                        item.id, item.dtype, item.name, item.price, item.stockQuantity))
+                .from(item)
+                .where(item.name.isNotNull(),
+                        dtypeEq(itemSearch.getDtype()),
+                        nameStartsWith(itemSearch.getNamePrefix()))
+                .orderBy(item.name.asc(), item.id.asc());
+    }
+
+    private BooleanExpression dtypeEq(String dtypeCond) {
+        if (!StringUtils.hasText(dtypeCond)) {
+            return null;
+        }
+        return QItem.item.dtype.eq(dtypeCond);
+    }
+
+    //LIKE 'prefix%' (와일드카드 문자는 이스케이프된다.) 앞부분이 고정이라 인덱스 범위 검색이 가능하다.
+    private BooleanExpression nameStartsWith(String prefixCond) {
+        if (!StringUtils.hasText(prefixCond)) {
+            return null;
+        }
+        return QItem.item.name.startsWith(prefixCond);
+    }
+
+    private BooleanExpression after(String lastName, Long lastId) {
+        if (lastName == null || lastId == null) {
+            return null;
+        }
+        QItem item = QItem.item;
+        return item.name.gt(lastName)
+                .or(item.name.eq(lastName).and(item.id.gt(lastId)));
+    }
 }
@@ -1,9 +1,19 @@
 package jpashop_recap.project1.repository;
 
+import jakarta.persistence.QueryHint;
 import jpashop_recap.project1.domain.Member;
+import jpashop_recap.project1.repository.query.dto.MemberAddressListDto;
+import jpashop_recap.project1.repository.query.dto.MemberListDto;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface MemberRepository extends JpaRepository<Member, Long> {
     //기존의 old version에 존재했던 함수들 대다수는 JpaRepository에 기본 옵션으로 존재해서 함수를 선언하지 않아도 됨.
@@ -11,4 +21,37 @@ public interface MemberRepository extends JpaRepository<Member, Long> {
     //JPA가 함수명을 보고 (ex.findBy____ 형태) 알아서 JPQL을 작성해줌.
     //즉, Name만 보고 알아서 select m from Member m where m.name :=name을 작성해줌.
     List<Member> findByName(String name);
+
+    //중복 이름 검사용 Bloom filter를 만들 때 사용. 엔티티 없이 이름만 fetch size 단위로 읽어온다.
+    @Query("select m.name from Member m")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<String> streamAllNames();
+
+    //주문 검색용 회원 이름 인덱스를 만들 때 사용. [id, name]
+    @Query("select m.id, m.name from Member m")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<Object[]> streamAllIdAndNames();
+
+    //회원 목록은 주문 폼을 열 때마다 조회되므로 쿼리 캐시를 사용한다. member 테이블이 바뀌면 자동 무효화된다.
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Member> findAll();
+
+    //==회원 목록 DTO 조회==//
+    //커서(keyset) 페이징: lastMemberId 다음부터 PK 순서로. Pageable은 limit 용도로만 쓴다. (offset 0)
+    @Query("select new jpashop_recap.project1.repository.query.dto.MemberListDto(m.id, m.name, m.address.city)" +
+            " from Member m where m.id > :lastMemberId order by m.id")
+    List<MemberListDto> findListDtosAfter(@Param("lastMemberId") Long lastMemberId, Pageable pageable);
+
+    //페이지 번호 페이징 (회원 목록 화면). Slice는 count 쿼리 없이 size + 1개를 읽어서 다음 페이지 여부만 판단한다.
+    @Query("select new jpashop_recap.project1.repository.query.dto.MemberAddressListDto(" +
+            "m.id, m.name, m.address.city, m.address.street, m.address.zipcode)" +
+            " from Member m order by m.id")
+    Slice<MemberAddressListDto> findListDtos(Pageable pageable);
+
+    //전체 회원 export. 결과를 List에 모으지 않고 fetch size 단위로 커서에서 읽는다. (트랜잭션 안에서 닫아야 한다.)
+    @Query("select new jpashop_recap.project1.repository.query.dto.MemberListDto(m.id, m.name, m.address.city)" +
+            " from Member m order by m.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<MemberListDto> streamAllListDtos();
 }
@@ -12,6 +12,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -56,16 +57,31 @@ public class OrderRepository {
 //        return query.getResultList();
 //    }
 
+    //회원명 조건(LIKE 패턴)은 member 조인으로 검색한다.
     public List<Order> findAll(OrderSearch orderSearch) {
+        return findAll(orderSearch, null);
+    }
+
+    //memberIds가 있으면 회원명 대신 orders.member_id in (...) 조건으로 조회한다. (member 조인 불필요)
+    //회원명 인덱스(MemberNameIndex)로 미리 찾은 회원 id를 넘긴다.
+    public List<Order> findAll(OrderSearch orderSearch, Collection<Long> memberIds) {
         QOrder order = QOrder.order;
-        QMember member = QMember.member;
         JPAQueryFactory query = new JPAQueryFactory(em);
 
+        BooleanExpression memberCond = null;
+        if (memberIds != null) {
+            if (memberIds.isEmpty()) {
+                return new ArrayList<>();
+            }
+            memberCond = order.member.id.in(memberIds);
+        } else if (StringUtils.hasText(orderSearch.getMemberName())) {
+            memberCond = order.member.name.like(orderSearch.getMemberName(), '\\');
+        }
+
         return query.select(order)
                 .from(order)
-                .join(order.member, member)
                 .where(statusEq(orderSearch.getOrderStatus()),
-                        nameLike(orderSearch.getMemberName()))
+                        memberCond)
                 .limit(1000)
                 .fetch();
     }
@@ -77,13 +93,6 @@ public class OrderRepository {
         return QOrder.order.status.eq(statusCond);
     }
 
-    private BooleanExpression nameLike(String nameCond) {
-        if (!StringUtils.hasText(nameCond)) {
-            return null;
-        }
-        return QMember.member.name.like(nameCond);
-    }
-
     /**
      * N+1 문제를 해결하기 위한 Fetch Join에 사용되는 함수
      */
@@ -116,4 +125,111 @@ public class OrderRepository {
                 .setMaxResults(limit)           //페이징 최대 결과 수.
                 .getResultList();
     }
+
+    /**
+     * 커서(keyset) 기반 페이징
+     * offset 방식은 앞 페이지의 row를 모두 읽고 버리므로 뒤 페이지로 갈수록 느려진다.
+     * 마지막으로 읽은 order_id보다 큰 row부터 PK 인덱스로 바로 찾아가므로 몇 번째 페이지든 비용이 같다.
+     * XToOne 페치 조인은 그대로 유지하고, 컬렉션은 default_batch_fetch_size로 조회한다.
+     */
+    public List<Order> findAllWithMemberDelivery_cursor(Long lastOrderId, int limit) {
+        return em.createQuery("select o from Order o" +
+                " join fetch o.member m" +
+                " join fetch o.delivery d" +
+                " where o.id > :lastOrderId" +
+                " order by o.id", Order.class)
+                .setParameter("lastOrderId", lastOrderId == null ? 0L : lastOrderId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    //==대량 취소==//
+    //엔티티(주문, 배송, 주문상품, 상품)를 읽지 않고 SQL로 상태 확인 → 상태 변경 → 재고 복구를 처리한다.
+
+    /**
+     * 주문 상태와 배송 상태를 읽으면서 주문/배송 row를 락으로 잡는다. (order_id 순)
+     * 취소 처리가 끝날 때까지 다른 트랜잭션이 같은 주문을 취소하거나 배송완료로 바꾸지 못한다.
+     * @return [order_id, 주문 상태, 배송 상태]. 없는 주문은 빠진다.
+     */
+    public List<Object[]> findCancelStatesForUpdate(Collection<Long> orderIds) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery("select o.order_id, o.status, d.status" +
+                        " from orders o" +
+                        " join delivery d on d.delivery_id = o.delivery_id" +
+                        " where o.order_id in (:orderIds)" +
+                        " order by o.order_id" +
+                        " for update")
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+        return rows;
+    }
+
+    //상태만 한 번에 바꾼다. 버전도 올려서, 그 전에 엔티티로 읽어둔 트랜잭션이 취소를 덮어쓰지 못하게 한다.
+    public int cancelAll(Collection<Long> orderIds) {
+        return em.createQuery("update Order o" +
+                        " set o.status = :cancel, o.version = o.version + 1" +
+                        " where o.id in :orderIds")
+                .setParameter("cancel", OrderStatus.CANCEL)
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+    }
+
+    /**
+     * 주문들의 상품별 수량 합계. 재고는 상품마다 UPDATE 한 번으로 복구한다.
+     * 상품 id 순으로 반환하므로, 동시에 재고를 복구하는 트랜잭션끼리 같은 순서로 락을 잡는다.
+     * @return [item_id, 수량 합계]
+     */
+    public List<Object[]> sumCountsByItem(Collection<Long> orderIds) {
+        return em.createQuery("select oi.item.id, sum(oi.count)" +
+                        " from OrderItem oi" +
+                        " where oi.order.id in :orderIds" +
+                        " group by oi.item.id" +
+                        " order by oi.item.id", Object[].class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+    }
+
+    /**
+     * 검색 조건(회원명)에 맞는 주문 상태(ORDER) 주문 id를 afterOrderId 다음부터 limit개 (order_id 순)
+     * 배송완료 주문도 포함한다. (취소 결과에 DELIVERED로 기록된다.)
+     * 취소는 되돌릴 수 없으므로 회원명은 LIKE 패턴이 아니라 정확히 일치하는 이름만 찾는다. (%, _도 글자 그대로)
+     */
+    public List<Long> findCancelableIds(OrderSearch orderSearch, Long afterOrderId, int limit) {
+        if (orderSearch.getOrderStatus() == OrderStatus.CANCEL) {
+            return new ArrayList<>();
+        }
+        QOrder order = QOrder.order;
+        JPAQueryFactory query = new JPAQueryFactory(em);
+
+        return query.select(order.id)
+                .from(order)
+                .where(statusEq(OrderStatus.ORDER),
+                        memberNameEq(orderSearch.getMemberName()),
+                        order.id.gt(afterOrderId == null ? 0L : afterOrderId))
+                .orderBy(order.id.asc())
+                .limit(limit)
+                .fetch();
+    }
+
+    /**
+     * findCancelableIds로 찾을 주문 수
+     */
+    public long countCancelable(OrderSearch orderSearch) {
+        if (orderSearch.getOrderStatus() == OrderStatus.CANCEL) {
+            return 0;
+        }
+        QOrder order = QOrder.order;
+        JPAQueryFactory query = new JPAQueryFactory(em);
+
+        Long count = query.select(order.count())
+                .from(order)
+                .where(statusEq(OrderStatus.ORDER),
+                        memberNameEq(orderSearch.getMemberName()))
+                .fetchOne();
+        return count == null ? 0 : count;
+    }
+
+    private BooleanExpression memberNameEq(String memberName) {
+        return StringUtils.hasText(memberName) ? QOrder.order.member.name.eq(memberName) : null;
+    }
 }
@@ -0,0 +1,91 @@
+package jpashop_recap.project1.repository;
+
+import jakarta.persistence.EntityManager;
+import jpashop_recap.project1.domain.OrderStatus;
+import jpashop_recap.project1.domain.OrderSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderSummaryRepository {
+
+    private final EntityManager em;
+
+    public void save(OrderSummary orderSummary) {
+        em.persist(orderSummary);
+    }
+
+    public OrderSummary findOne(Long orderId) {
+        return em.find(OrderSummary.class, orderId);
+    }
+
+    /**
+     * 조인 없이 order_summary 테이블만 PK 순서로 읽는다. (lastOrderId 이후부터 limit개)
+     */
+    public List<OrderSummary> findPage(Long lastOrderId, int limit) {
+        return em.createQuery("select s from OrderSummary s" +
+                " where s.orderId > :lastOrderId" +
+                " order by s.orderId", OrderSummary.class)
+                .setParameter("lastOrderId", lastOrderId == null ? 0L : lastOrderId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    //대량 취소용. 요약을 읽지 않고 상태만 한 번에 바꾼다.
+    public int changeStatusAll(Collection<Long> orderIds, OrderStatus status) {
+        return em.createQuery("update OrderSummary s set s.status = :status where s.orderId in :orderIds")
+                .setParameter("status", status)
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+    }
+
+    public long count() {
+        return em.createQuery("select count(s) from OrderSummary s", Long.class)
+                .getSingleResult();
+    }
+
+    //회원 이름이 바뀌면 그 회원의 주문 요약도 함께 바꾼다. (요약에는 member_id가 없으므로 orders에서 찾는다.)
+    public int updateMemberName(Long memberId, String memberName) {
+        return em.createQuery("update OrderSummary s set s.memberName = :memberName" +
+                        " where s.orderId in (select o.id from Order o where o.member.id = :memberId)")
+                .setParameter("memberName", memberName)
+                .setParameter("memberId", memberId)
+                .executeUpdate();
+    }
+
+    //==재구성(backfill)용==//
+    //범위로 지우면 그 사이에 커밋된 주문의 요약까지 지울 수 있으므로, 다시 채울 주문의 요약만 지운다.
+    public int deleteByOrderIds(Collection<Long> orderIds) {
+        return em.createQuery("delete from OrderSummary s where s.orderId in :orderIds")
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+    }
+
+    //원본 주문이 지워진 요약만 정리한다. (주문과 요약은 같은 트랜잭션에서 저장되므로, 원본이 있는 요약은 건드리지 않는다.)
+    public int deleteOrphans(Long fromOrderId, Long toOrderId) {
+        return em.createQuery("delete from OrderSummary s" +
+                        " where s.orderId between :fromOrderId and :toOrderId" +
+                        " and not exists (select o.id from Order o where o.id = s.orderId)")
+                .setParameter("fromOrderId", fromOrderId)
+                .setParameter("toOrderId", toOrderId)
+                .executeUpdate();
+    }
+
+    //원본 테이블(orders + member + delivery)에서 읽은 요약 row. (영속 상태 아님)
+    public List<OrderSummary> findSourceRows(Long afterOrderId, Long toOrderId, int limit) {
+        return em.createQuery("select new jpashop_recap.project1.domain.OrderSummary(o.id, m.name, o.orderDate, o.status, d.address)" +
+                " from Order o" +
+                " join o.member m" +
+                " join o.delivery d" +
+                " where o.id > :afterOrderId and o.id <= :toOrderId" +
+                " order by o.id", OrderSummary.class)
+                .setParameter("afterOrderId", afterOrderId)
+                .setParameter("toOrderId", toOrderId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
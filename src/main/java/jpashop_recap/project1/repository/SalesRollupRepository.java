@@ -0,0 +1,157 @@
+package jpashop_recap.project1.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import jpashop_recap.project1.domain.ItemDailySales;
+import jpashop_recap.project1.domain.ItemDailySalesId;
+import jpashop_recap.project1.repository.query.dto.ItemSalesDto;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class SalesRollupRepository {
+
+    //MERGE 한 문장에 넣는 최대 row 수
+    private static final int MERGE_ROWS = 100;
+
+    private final EntityManager em;
+
+    /**
+     * 증감분 반영 (upsert). (상품, 주문일) row가 있으면 더하고, 없으면 만든다.
+     * 여러 row를 VALUES 목록으로 묶어 MERGE 한 번에 보낸다. 동시에 같은 row를 고치는 트랜잭션끼리 데드락이 나지 않도록
+     * 호출하는 쪽에서 키 순서로 정렬해서 넘긴다.
+     * MERGE ... USING (VALUES ...) 문법은 H2 기준이다. (표준 MERGE라 Oracle, SQL Server, PostgreSQL 15+도 되지만,
+     * MySQL은 INSERT ... ON DUPLICATE KEY UPDATE로 바꿔야 한다.)
+     */
+    public void mergeDeltas(List<ItemDailySales> deltas) {
+        for (int from = 0; from < deltas.size(); from += MERGE_ROWS) {
+            List<ItemDailySales> chunk = deltas.subList(from, Math.min(from + MERGE_ROWS, deltas.size()));
+            StringBuilder values = new StringBuilder();
+            for (int i = 0; i < chunk.size(); i++) {
+                values.append(i == 0 ? "" : ", ")
+                        .append("(cast(? as bigint), cast(? as date), cast(? as bigint), cast(? as bigint), cast(? as bigint))");
+            }
+            Query query = synchronizedOnRollup(em.createNativeQuery("merge into item_daily_sales t" +
+                    " using (values " + values + ") s(item_id, sales_date, units, revenue, order_lines)" +
+                    " on t.item_id = s.item_id and t.sales_date = s.sales_date" +
+                    " when matched then update set t.units = t.units + s.units, t.revenue = t.revenue + s.revenue," +
+                    " t.order_lines = t.order_lines + s.order_lines" +
+                    " when not matched then insert (item_id, sales_date, units, revenue, order_lines)" +
+                    " values (s.item_id, s.sales_date, s.units, s.revenue, s.order_lines)"));
+            int position = 1;
+            for (ItemDailySales delta : chunk) {
+                query.setParameter(position++, delta.getId().getItemId());
+                query.setParameter(position++, delta.getId().getSalesDate());
+                query.setParameter(position++, delta.getUnits());
+                query.setParameter(position++, delta.getRevenue());
+                query.setParameter(position++, delta.getOrderLines());
+            }
+            query.executeUpdate();
+        }
+    }
+
+    /**
+     * 주문들의 (상품, 주문일)별 판매량/매출/주문상품 수 합계. 대량 취소에서 롤업에 뺄 증감분으로 쓴다. (영속 상태 아님)
+     */
+    public List<ItemDailySales> findSalesOfOrders(Collection<Long> orderIds) {
+        return em.createQuery("select oi.item.id, cast(o.orderDate as LocalDate), sum(oi.count)," +
+                        " sum(cast(oi.orderPrice as Long) * oi.count), count(oi)" +
+                        " from OrderItem oi" +
+                        " join oi.order o" +
+                        " where o.id in :orderIds" +
+                        " group by oi.item.id, cast(o.orderDate as LocalDate)", Object[].class)
+                .setParameter("orderIds", orderIds)
+                .getResultList().stream()
+                .map(row -> {
+                    ItemDailySales sales = new ItemDailySales(new ItemDailySalesId((Long) row[0], (LocalDate) row[1]));
+                    sales.add(((Number) row[2]).longValue(), ((Number) row[3]).longValue(), ((Number) row[4]).longValue());
+                    return sales;
+                })
+                .toList();
+    }
+
+    //==조회==//
+    //일별 x 상품별. itemId가 null이면 모든 상품
+    public List<ItemSalesDto> findDaily(LocalDate from, LocalDate to, Long itemId) {
+        TypedQuery<ItemSalesDto> query = em.createQuery("select new" +
+                        " jpashop_recap.project1.repository.query.dto.ItemSalesDto(s.id.itemId, i.name, s.id.salesDate, s.units, s.revenue)" +
+                        " from ItemDailySales s" +
+                        " join Item i on i.id = s.id.itemId" +
+                        " where s.id.salesDate >= :from and s.id.salesDate < :to" +
+                        (itemId != null ? " and s.id.itemId = :itemId" : "") +
+                        " order by s.id.salesDate, s.id.itemId", ItemSalesDto.class)
+                .setParameter("from", from)
+                .setParameter("to", to);
+        if (itemId != null) {
+            query.setParameter("itemId", itemId);
+        }
+        return query.getResultList();
+    }
+
+    //기간 합계 매출 상위 상품
+    public List<ItemSalesDto> findTopItems(LocalDate from, LocalDate to, int limit) {
+        return em.createQuery("select new" +
+                        " jpashop_recap.project1.repository.query.dto.ItemSalesDto(s.id.itemId, i.name, sum(s.units), sum(s.revenue))" +
+                        " from ItemDailySales s" +
+                        " join Item i on i.id = s.id.itemId" +
+                        " where s.id.salesDate >= :from and s.id.salesDate < :to" +
+                        " group by s.id.itemId, i.name" +
+                        " order by sum(s.revenue) desc, s.id.itemId", ItemSalesDto.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    public long count() {
+        return em.createQuery("select count(s) from ItemDailySales s", Long.class)
+                .getSingleResult();
+    }
+
+    //==재구성(catch-up)용==//
+    public int deleteRange(LocalDate from, LocalDate to) {
+        return em.createQuery("delete from ItemDailySales s where s.id.salesDate >= :from and s.id.salesDate < :to")
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .executeUpdate();
+    }
+
+    //원본 테이블(order_item + orders)을 [from, to) 기간만 GROUP BY해서 그대로 INSERT한다. (애플리케이션으로 row를 가져오지 않는다.)
+    public int insertFromSource(LocalDate from, LocalDate to) {
+        return synchronizedOnRollup(em.createNativeQuery("insert into item_daily_sales (item_id, sales_date, units, revenue, order_lines)" +
+                        " select oi.item_id, cast(o.order_date as date), sum(oi.count)," +
+                        " sum(cast(oi.order_price as bigint) * oi.count), count(*)" +
+                        " from order_item oi" +
+                        " join orders o on o.order_id = oi.order_id" +
+                        " where o.status = 'ORDER' and o.order_date >= ? and o.order_date < ?" +
+                        " group by oi.item_id, cast(o.order_date as date)"))
+                .setParameter(1, from.atStartOfDay())
+                .setParameter(2, to.atStartOfDay())
+                .executeUpdate();
+    }
+
+    //네이티브 UPDATE/INSERT는 어떤 테이블을 바꾸는지 Hibernate가 모르면 모든 2차 캐시 영역(회원, 상품, 쿼리 캐시)을 비운다.
+    //롤업은 주문 트랜잭션마다 실행되므로, item_daily_sales만 바꾼다고 알려서 다른 캐시가 살아남게 한다.
+    private Query synchronizedOnRollup(Query query) {
+        query.unwrap(NativeQuery.class).addSynchronizedEntityClass(ItemDailySales.class);
+        return query;
+    }
+
+    //원본 주문의 주문일 범위 [최소, 최대]. 주문이 없으면 null
+    public LocalDate[] findSourceDateRange() {
+        Object[] row = em.createQuery("select min(o.orderDate), max(o.orderDate) from Order o", Object[].class)
+                .getSingleResult();
+        if (row[0] == null) {
+            return null;
+        }
+        return new LocalDate[]{((LocalDateTime) row[0]).toLocalDate(), ((LocalDateTime) row[1]).toLocalDate()};
+    }
+}
@@ -0,0 +1,88 @@
+package jpashop_recap.project1.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jpashop_recap.project1.domain.StockBucket;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class StockBucketRepository {
+
+    private final EntityManager em;
+
+    public void save(StockBucket bucket) {
+        em.persist(bucket);
+    }
+
+    /**
+     * 버킷 하나에서 재고 차감 - ItemRepository.removeStock과 같은 조건부 UPDATE
+     * @return 변경된 row 수 (0이면 이 버킷의 재고 부족)
+     */
+    public int removeStock(Long itemId, int bucketNo, int quantity) {
+        return em.createQuery("update StockBucket b" +
+                " set b.quantity = b.quantity - :quantity" +
+                " where b.id.itemId = :itemId and b.id.bucketNo = :bucketNo" +
+                " and b.quantity >= :quantity")
+                .setParameter("quantity", quantity)
+                .setParameter("itemId", itemId)
+                .setParameter("bucketNo", bucketNo)
+                .executeUpdate();
+    }
+
+    public int addStock(Long itemId, int bucketNo, int quantity) {
+        return em.createQuery("update StockBucket b" +
+                " set b.quantity = b.quantity + :quantity" +
+                " where b.id.itemId = :itemId and b.id.bucketNo = :bucketNo")
+                .setParameter("quantity", quantity)
+                .setParameter("itemId", itemId)
+                .setParameter("bucketNo", bucketNo)
+                .executeUpdate();
+    }
+
+    //재분배용. 버킷 번호 순서로 락을 잡아서, 동시에 재분배하는 트랜잭션끼리 데드락이 나지 않게 한다.
+    public List<StockBucket> findAllForUpdate(Long itemId) {
+        return em.createQuery("select b from StockBucket b" +
+                " where b.id.itemId = :itemId" +
+                " order by b.id.bucketNo", StockBucket.class)
+                .setParameter("itemId", itemId)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    public long countBuckets(Long itemId) {
+        return em.createQuery("select count(b) from StockBucket b where b.id.itemId = :itemId", Long.class)
+                .setParameter("itemId", itemId)
+                .getSingleResult();
+    }
+
+    public int deleteAll(Long itemId) {
+        return em.createQuery("delete from StockBucket b where b.id.itemId = :itemId")
+                .setParameter("itemId", itemId)
+                .executeUpdate();
+    }
+
+    //상품별 버킷 재고 합계 (읽기는 버킷 전체를 더한다.)
+    public Map<Long, Long> sumQuantities(Collection<Long> itemIds) {
+        Map<Long, Long> sums = new HashMap<>();
+        em.createQuery("select b.id.itemId, sum(b.quantity) from StockBucket b" +
+                " where b.id.itemId in :itemIds" +
+                " group by b.id.itemId", Object[].class)
+                .setParameter("itemIds", itemIds)
+                .getResultList()
+                .forEach(row -> sums.put((Long) row[0], (Long) row[1]));
+        return sums;
+    }
+
+    //분산 재고 모드인 상품별 버킷 수. [item_id, count]
+    public List<Object[]> countBucketsByItem() {
+        return em.createQuery("select b.id.itemId, count(b) from StockBucket b group by b.id.itemId", Object[].class)
+                .getResultList();
+    }
+}
@@ -4,17 +4,35 @@ import jakarta.persistence.EntityManager;
 import jpashop_recap.project1.repository.query.dto.OrderItemQueryDto;
 import jpashop_recap.project1.repository.query.dto.OrderQueryDto;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
 public class OrderQueryRepository {
 
     private final EntityManager em;
+    private final PlatformTransactionManager transactionManager;
+    private final ExecutorService orderItemQueryExecutor;
+
+    //IN 절 하나에 들어가는 최대 id 개수
+    @Value("${jpashop.query.in-chunk-size:1000}")
+    private int inChunkSize;
 
     public List<OrderQueryDto> findOrderQueryDtos() {
         List<OrderQueryDto> result = findOrders();
@@ -39,6 +57,61 @@ public class OrderQueryRepository {
         return result;
     }
 
+    /**
+     * 전체 주문 스트리밍 조회 (export용)
+     * v5처럼 전체 결과를 List에 모으지 않고, JDBC fetch size만큼씩 커서로 주문을 읽는다.
+     * 주문이 windowSize만큼 모이면 그 주문들의 orderItem만 IN 쿼리로 조회해서 consumer에 넘기고 버린다.
+     * => 주문 수와 관계없이 메모리에는 한 윈도우만 올라간다.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllByDto(int windowSize, Consumer<OrderQueryDto> consumer) {
+        try (Stream<OrderQueryDto> orders = em.createQuery("select " +
+                "new jpashop_recap.project1.repository.query.dto.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                " from Order o" +
+                " join o.member m" +
+                " join o.delivery d" +
+                " order by o.id", OrderQueryDto.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, windowSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+
+            List<OrderQueryDto> window = new ArrayList<>(windowSize);
+            orders.forEach(o -> {
+                window.add(o);
+                if (window.size() == windowSize) {
+                    flushWindow(window, consumer);
+                }
+            });
+            flushWindow(window, consumer);
+        }
+    }
+
+    private void flushWindow(List<OrderQueryDto> window, Consumer<OrderQueryDto> consumer) {
+        if (window.isEmpty()) {
+            return;
+        }
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(toOrderIds(window));
+        window.forEach(o -> {
+            o.setOrderItems(orderItemMap.getOrDefault(o.getOrderId(), List.of()));
+            consumer.accept(o);
+        });
+        window.clear();
+    }
+
+    /**
+     * v5 + IN 절 분할 조회
+     * 주문이 수만 건이면 IN 절 하나에 id가 수만 개 들어가 파싱/바인딩 비용이 커진다.
+     * id를 inChunkSize개씩 나눠 제한된 스레드 풀에서 동시에 조회하고, 결과는 박싱 없는 LongKeyMap으로 묶는다.
+     */
+    public List<OrderQueryDto> findAllByDto_chunked() {
+        List<OrderQueryDto> result = findOrders();
+
+        LongKeyMap<List<OrderItemQueryDto>> orderItemMap = findOrderItemMap_chunked(toOrderIds(result));
+        result.forEach(o -> o.setOrderItems(orderItemMap.getOrDefault(o.getOrderId(), List.of())));
+
+        return result;
+    }
+
     //XToOne에 해당하는 것들을 한꺼번에 조회
     private List<OrderQueryDto> findOrders() {
         return em.createQuery("select " +
@@ -68,17 +141,77 @@ public class OrderQueryRepository {
 
     //Map을 활용함으로써 O(1)로 향상
     private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
-        List<OrderItemQueryDto> orderItems = em.createQuery("select new" +
+        //파라미터로 받은 리스트의 내용에 존재하는 id들에 대해서 모두 쿼리 탐색
+        List<OrderItemQueryDto> orderItems = findOrderItemsIn(em, orderIds);
+
+        //key: OrderId, value: OrderItemQueryDto 객체로 저장된 Map을 만들어 리턴하는 것이다.
+        return orderItems.stream()
+                .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId));
+    }
+
+    //청크가 하나뿐이거나 호출한 쪽이 쓰기 트랜잭션 안이면 현재 스레드(현재 트랜잭션)에서 청크를 차례로 조회한다.
+    //쓰기 트랜잭션은 아직 커밋하지 않은 변경을 다른 트랜잭션에서 볼 수 없기 때문이다.
+    //그 밖에는 청크마다 작업 스레드에서 읽기 전용 트랜잭션으로 동시에 조회한다. (EntityManager는 스레드 간에 공유할 수 없다.)
+    //읽기 전용 트랜잭션이므로 복제본 라우팅도 그대로 적용되고, SQL 통계는 QueryExecutorConfig가 작업 스레드로 넘겨준다.
+    private LongKeyMap<List<OrderItemQueryDto>> findOrderItemMap_chunked(List<Long> orderIds) {
+        LongKeyMap<List<OrderItemQueryDto>> orderItemMap = new LongKeyMap<>(orderIds.size());
+        boolean inWriteTransaction = TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (orderIds.size() <= inChunkSize || inWriteTransaction) {
+            for (int from = 0; from < orderIds.size(); from += inChunkSize) {
+                List<Long> chunk = orderIds.subList(from, Math.min(from + inChunkSize, orderIds.size()));
+                groupByOrderId(orderItemMap, findOrderItemsIn(em, chunk));
+            }
+            return orderItemMap;
+        }
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<Future<List<OrderItemQueryDto>>> futures = new ArrayList<>();
+        for (int from = 0; from < orderIds.size(); from += inChunkSize) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + inChunkSize, orderIds.size()));
+            futures.add(orderItemQueryExecutor.submit(() -> readOnly.execute(status -> findOrderItemsIn(em, chunk))));
+        }
+        for (Future<List<OrderItemQueryDto>> future : futures) {
+            groupByOrderId(orderItemMap, await(future));
+        }
+        return orderItemMap;
+    }
+
+    private List<OrderItemQueryDto> findOrderItemsIn(EntityManager entityManager, List<Long> orderIds) {
+        return entityManager.createQuery("select new" +
                         " jpashop_recap.project1.repository.query.dto.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
                         " from OrderItem oi" +
                         " join oi.item i" +
                         " where oi.order.id in :orderIds", OrderItemQueryDto.class)
-                //파라미터로 받은 리스트의 내용에 존재하는 id들에 대해서 모두 쿼리 탐색
                 .setParameter("orderIds", orderIds)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
                 .getResultList();
+    }
 
-        //key: OrderId, value: OrderItemQueryDto 객체로 저장된 Map을 만들어 리턴하는 것이다.
-        return orderItems.stream()
-                .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId));
+    private void groupByOrderId(LongKeyMap<List<OrderItemQueryDto>> orderItemMap, List<OrderItemQueryDto> orderItems) {
+        for (OrderItemQueryDto orderItem : orderItems) {
+            long orderId = orderItem.getOrderId();
+            List<OrderItemQueryDto> list = orderItemMap.get(orderId);
+            if (list == null) {
+                list = new ArrayList<>(4);
+                orderItemMap.put(orderId, list);
+            }
+            list.add(orderItem);
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("주문상품 조회 중 인터럽트가 발생했습니다.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
     }
 }
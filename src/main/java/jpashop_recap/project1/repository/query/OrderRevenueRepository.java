@@ -0,0 +1,69 @@
+package jpashop_recap.project1.repository.query;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jpashop_recap.project1.domain.OrderStatus;
+import jpashop_recap.project1.repository.query.dto.RevenueByDayDto;
+import jpashop_recap.project1.repository.query.dto.RevenueByMemberDto;
+import jpashop_recap.project1.repository.query.dto.RevenueByStatusDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 매출 집계 조회
+ * 엔티티를 로딩해서 자바로 더하지 않고, orders.total_price를 DB에서 GROUP BY로 합산한 결과만 DTO로 받는다.
+ * 기간은 [from, to) 반열린 구간이고, status가 null이면 모든 상태를 포함한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderRevenueRepository {
+
+    private final EntityManager em;
+
+    public List<RevenueByStatusDto> findRevenueByStatus() {
+        return em.createQuery("select new" +
+                        " jpashop_recap.project1.repository.query.dto.RevenueByStatusDto(o.status, count(o), sum(o.totalPrice))" +
+                        " from Order o" +
+                        " group by o.status" +
+                        " order by o.status", RevenueByStatusDto.class)
+                .getResultList();
+    }
+
+    public List<RevenueByDayDto> findRevenueByDay(LocalDate from, LocalDate to, OrderStatus status) {
+        TypedQuery<RevenueByDayDto> query = em.createQuery("select new" +
+                        " jpashop_recap.project1.repository.query.dto.RevenueByDayDto(cast(o.orderDate as LocalDate), count(o), sum(o.totalPrice))" +
+                        " from Order o" +
+                        " where o.orderDate >= :from and o.orderDate < :to" +
+                        (status != null ? " and o.status = :status" : "") +
+                        " group by cast(o.orderDate as LocalDate)" +
+                        " order by cast(o.orderDate as LocalDate)", RevenueByDayDto.class)
+                .setParameter("from", from.atStartOfDay())
+                .setParameter("to", to.atStartOfDay());
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        return query.getResultList();
+    }
+
+    //매출 상위 회원 순. 회원 이름 때문에 member만 조인한다. (주문상품은 읽지 않는다.)
+    public List<RevenueByMemberDto> findRevenueByMember(LocalDate from, LocalDate to, OrderStatus status, int limit) {
+        TypedQuery<RevenueByMemberDto> query = em.createQuery("select new" +
+                        " jpashop_recap.project1.repository.query.dto.RevenueByMemberDto(m.id, m.name, count(o), sum(o.totalPrice))" +
+                        " from Order o" +
+                        " join o.member m" +
+                        " where o.orderDate >= :from and o.orderDate < :to" +
+                        (status != null ? " and o.status = :status" : "") +
+                        " group by m.id, m.name" +
+                        " order by sum(o.totalPrice) desc, m.id", RevenueByMemberDto.class)
+                .setParameter("from", from.atStartOfDay())
+                .setParameter("to", to.atStartOfDay())
+                .setMaxResults(limit);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,16 @@
+package jpashop_recap.project1.repository.query.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+//상품 카탈로그 DTO. 공통 컬럼만 조회하므로 하위 타입(책, 앨범, 영화) 전용 컬럼은 읽지 않는다.
+@Data
+@AllArgsConstructor
+public class ItemCatalogDto {
+
+    private Long id;
+    private String dtype;
+    private String name;
+    private int price;
+    private int stockQuantity;
+}
@@ -0,0 +1,23 @@
+package jpashop_recap.project1.repository.query.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+//상품별 매출 (day가 null이면 기간 전체 합계)
+@Data
+@AllArgsConstructor
+public class ItemSalesDto {
+
+    private Long itemId;
+    private String itemName;
+    private LocalDate day;
+    private long units;
+    private long revenue;
+
+    //기간 합계 조회용 (GROUP BY 상품)
+    public ItemSalesDto(Long itemId, String itemName, long units, long revenue) {
+        this(itemId, itemName, null, units, revenue);
+    }
+}
@@ -0,0 +1,16 @@
+package jpashop_recap.project1.repository.query.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+//회원 목록 화면용 DTO. 화면은 주소 전체(도시, 주소, 우편번호)를 보여주므로 API용 MemberListDto와 나눴다.
+@Data
+@AllArgsConstructor
+public class MemberAddressListDto {
+
+    private Long id;
+    private String name;
+    private String city;
+    private String street;
+    private String zipcode;
+}
@@ -0,0 +1,14 @@
+package jpashop_recap.project1.repository.query.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+//회원 목록용 DTO. JPQL new로 바로 조회하므로 Member 엔티티/orders 프록시/스냅샷이 만들어지지 않는다.
+@Data
+@AllArgsConstructor
+public class MemberListDto {
+
+    private Long id;
+    private String name;
+    private String city;
+}
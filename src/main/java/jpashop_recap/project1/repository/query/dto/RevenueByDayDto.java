@@ -0,0 +1,16 @@
+package jpashop_recap.project1.repository.query.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+//일별 매출 (orders: 주문 건수, revenue: total_price 합계)
+@Data
+@AllArgsConstructor
+public class RevenueByDayDto {
+
+    private LocalDate day;
+    private long orders;
+    private long revenue;
+}
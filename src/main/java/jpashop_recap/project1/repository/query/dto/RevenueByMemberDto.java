@@ -0,0 +1,15 @@
+package jpashop_recap.project1.repository.query.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+//회원별 매출 (orders: 주문 건수, revenue: total_price 합계)
+@Data
+@AllArgsConstructor
+public class RevenueByMemberDto {
+
+    private Long memberId;
+    private String memberName;
+    private long orders;
+    private long revenue;
+}
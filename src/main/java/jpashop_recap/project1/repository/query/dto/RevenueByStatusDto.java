@@ -0,0 +1,15 @@
+package jpashop_recap.project1.repository.query.dto;
+
+import jpashop_recap.project1.domain.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+//주문 상태별 매출 (orders: 주문 건수, revenue: total_price 합계)
+@Data
+@AllArgsConstructor
+public class RevenueByStatusDto {
+
+    private OrderStatus status;
+    private long orders;
+    private long revenue;
+}
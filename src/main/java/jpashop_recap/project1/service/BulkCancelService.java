@@ -0,0 +1,130 @@
+package jpashop_recap.project1.service;
+
+import jakarta.persistence.EntityManager;
+import jpashop_recap.project1.domain.DeliveryStatus;
+import jpashop_recap.project1.domain.OrderSearch;
+import jpashop_recap.project1.domain.OrderStatus;
+import jpashop_recap.project1.repository.OrderRepository;
+import jpashop_recap.project1.repository.OrderSummaryRepository;
+import jpashop_recap.project1.service.dto.BulkCancelResult;
+import jpashop_recap.project1.service.dto.BulkCancelResult.Outcome;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * 대량 주문 취소 기능 (주문 id 목록 또는 검색 조건)
+ * OrderService.cancelOrder는 주문 하나마다 Order, Delivery, OrderItem을 읽고 주문상품마다 재고를 복구한다.
+ * 여기서는 chunkSize개의 주문을 트랜잭션 하나로 묶고, 엔티티를 읽지 않고 SQL로 처리한다.
+ * 1) 주문/배송 상태를 한 번에 읽으면서 락 (배송완료, 이미 취소된 주문은 여기서 걸러진다.)
+ * 2) 취소할 주문의 상태를 UPDATE 한 번으로 변경 (주문 요약도 한 번)
+ * 3) 상품별 수량을 합산해서 상품마다 UPDATE 한 번으로 재고 복구 (분산 재고 모드 상품은 버킷 하나에 복구)
+ * 취소할 수 없는 주문은 결과에 이유를 기록하고, 나머지 주문은 계속 처리한다.
+ */
+@Service
+@RequiredArgsConstructor
+public class BulkCancelService {
+
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderRepository orderRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final StockService stockService;
+    private final SalesRollupService salesRollupService;
+    private final DataVersions dataVersions;
+
+    @Value("${jpashop.bulk-cancel.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * 주문 id 목록으로 취소. 결과는 요청 순서대로 (중복 id는 한 번만 처리한다.)
+     */
+    public List<BulkCancelResult> cancel(List<Long> orderIds) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        List<BulkCancelResult> results = new ArrayList<>(distinctIds.size());
+        for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+            results.addAll(transactionTemplate.execute(status -> cancelChunk(chunk)));
+        }
+        return results;
+    }
+
+    /**
+     * 검색 조건(회원명)에 맞는 주문 수. 요청을 받기 전에 취소 대상이 너무 많은지 확인하는 용도
+     */
+    public long countCancelable(OrderSearch orderSearch) {
+        return transactionTemplate.execute(status -> orderRepository.countCancelable(orderSearch));
+    }
+
+    /**
+     * 검색 조건(회원명)에 맞는 주문을 최대 maxCount건 취소. order_id 순으로 chunkSize개씩 찾아서 그 자리에서 취소한다.
+     * 처리 중에 새 주문이 들어와도 maxCount건을 넘게 취소하지 않는다.
+     */
+    public List<BulkCancelResult> cancel(OrderSearch orderSearch, int maxCount) {
+        List<BulkCancelResult> results = new ArrayList<>();
+        Long last = 0L;
+        while (results.size() < maxCount) {
+            Long after = last;
+            int limit = Math.min(chunkSize, maxCount - results.size());
+            List<BulkCancelResult> chunk = transactionTemplate.execute(status ->
+                    cancelChunk(orderRepository.findCancelableIds(orderSearch, after, limit)));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            results.addAll(chunk);
+            last = chunk.get(chunk.size() - 1).getOrderId();
+        }
+        return results;
+    }
+
+    private List<BulkCancelResult> cancelChunk(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+
+        //1단계: 상태 확인 + 락
+        Map<Long, Outcome> outcomes = new HashMap<>();
+        List<Long> cancelIds = new ArrayList<>();
+        for (Object[] row : orderRepository.findCancelStatesForUpdate(orderIds)) {
+            Long orderId = ((Number) row[0]).longValue();
+            //상태 컬럼은 DB에 따라 문자열 또는 enum 타입으로 올 수 있어서 문자열로 비교한다.
+            Outcome outcome = outcomeOf(String.valueOf(row[1]), String.valueOf(row[2]));
+            outcomes.put(orderId, outcome);
+            if (outcome == Outcome.CANCELED) {
+                cancelIds.add(orderId);
+            }
+        }
+
+        if (!cancelIds.isEmpty()) {
+            //2단계: 상태 변경. 매출 롤업은 주문 합계를 읽어서 커밋 직전에 반영한다.
+            orderRepository.cancelAll(cancelIds);
+            orderSummaryRepository.changeStatusAll(cancelIds, OrderStatus.CANCEL);
+            salesRollupService.onCanceled(cancelIds);
+
+            //3단계: 상품별 재고 복구 (상품 id 순)
+            for (Object[] row : orderRepository.sumCountsByItem(cancelIds)) {
+                stockService.release((Long) row[0], ((Number) row[1]).intValue());
+            }
+            dataVersions.bump(DataVersions.Aggregate.ORDER);
+        }
+
+        //OSIV 환경에서는 영속성 컨텍스트가 요청 끝까지 살아있으므로, 벌크 UPDATE 이전 상태의 엔티티가 남지 않게 비운다.
+        em.clear();
+        return orderIds.stream()
+                .map(orderId -> new BulkCancelResult(orderId, outcomes.getOrDefault(orderId, Outcome.NOT_FOUND)))
+                .toList();
+    }
+
+    private static Outcome outcomeOf(String orderStatus, String deliveryStatus) {
+        if (OrderStatus.CANCEL.name().equals(orderStatus)) {
+            return Outcome.ALREADY_CANCELED;
+        }
+        if (DeliveryStatus.COMP.name().equals(deliveryStatus)) {
+            return Outcome.DELIVERED;
+        }
+        return Outcome.CANCELED;
+    }
+}
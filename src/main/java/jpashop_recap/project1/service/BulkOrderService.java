@@ -0,0 +1,181 @@
+package jpashop_recap.project1.service;
+
+import jakarta.persistence.EntityManager;
+import jpashop_recap.project1.domain.*;
+import jpashop_recap.project1.domain.item.Item;
+import jpashop_recap.project1.exception.NotEnoughStockException;
+import jpashop_recap.project1.repository.ItemRepository;
+import jpashop_recap.project1.repository.MemberRepository;
+import jpashop_recap.project1.repository.OrderRepository;
+import jpashop_recap.project1.repository.OrderSummaryRepository;
+import jpashop_recap.project1.service.dto.BulkOrderCommand;
+import jpashop_recap.project1.service.dto.BulkOrderResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 대량 주문 기능 (주문 여러 개 x 주문상품 여러 개)
+ * OrderService.order는 트랜잭션 하나에 주문 하나라서 수천 건을 넣으려면 수천 번 왕복해야 한다.
+ * 여기서는 chunkSize개의 주문을 트랜잭션 하나로 묶고, Order/Delivery/OrderItem INSERT는
+ * hibernate.jdbc.batch_size + order_inserts 설정으로 테이블별로 모아서 배치 전송한다.
+ * 재고 부족, 없는 회원/상품 같은 실패는 해당 주문만 실패로 기록하고 나머지 주문은 계속 처리한다.
+ * 청크 트랜잭션 자체가 실패하면 그 청크의 주문만 실패로 기록하고, 앞서 커밋된 청크의 결과는 그대로 돌려준다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkOrderService {
+
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderRepository orderRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final MemberRepository memberRepository;
+    private final ItemRepository itemRepository;
+    private final StockService stockService;
+    private final DataVersions dataVersions;
+    private final SalesRollupService salesRollupService;
+
+    @Value("${jpashop.bulk-order.chunk-size:500}")
+    private int chunkSize;
+
+    public List<BulkOrderResult> order(List<BulkOrderCommand> commands) {
+        List<BulkOrderResult> results = new ArrayList<>(commands.size());
+        for (int from = 0; from < commands.size(); from += chunkSize) {
+            int offset = from;
+            List<BulkOrderCommand> chunk = commands.subList(from, Math.min(from + chunkSize, commands.size()));
+            try {
+                results.addAll(transactionTemplate.execute(status -> orderChunk(offset, chunk)));
+            } catch (RuntimeException e) {
+                //청크 트랜잭션은 롤백되었으므로 재고 예약도 함께 취소되었다.
+                log.warn("bulk order chunk failed. from={}, size={}", offset, chunk.size(), e);
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(BulkOrderResult.chunkFailure(offset + i, e));
+                }
+            }
+        }
+        return results;
+    }
+
+    private List<BulkOrderResult> orderChunk(int offset, List<BulkOrderCommand> chunk) {
+        //청크에 필요한 회원, 상품을 IN 쿼리 한 번씩으로 미리 가져온다.
+        Map<Long, Member> members = memberRepository.findAllById(chunk.stream()
+                        .map(BulkOrderCommand::getMemberId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Member::getId, Function.identity()));
+        Map<Long, Item> items = itemRepository.findAllByIds(chunk.stream()
+                        .map(BulkOrderCommand::getLines)
+                        .filter(Objects::nonNull)
+                        .flatMap(List::stream)
+                        .map(BulkOrderCommand.Line::getItemId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        //1단계: 재고 예약 (조건부 UPDATE). INSERT 사이에 UPDATE가 끼지 않도록 먼저 모두 처리한다.
+        BulkOrderResult[] results = new BulkOrderResult[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            try {
+                validate(chunk.get(i), members, items);
+            } catch (IllegalArgumentException e) {
+                results[i] = BulkOrderResult.failure(offset + i, e);
+            }
+        }
+        reserve(offset, chunk, results);
+
+        //2단계: 재고 예약에 성공한 주문만 생성. (Delivery, OrderItem은 cascade로 함께 저장된다. 주문 요약, 매출 롤업도 함께 반영)
+        for (int i = 0; i < chunk.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            Order order = createOrder(chunk.get(i), members, items);
+            orderRepository.save(order);
+            orderSummaryRepository.save(OrderSummary.from(order));
+            salesRollupService.onOrdered(order);
+            results[i] = BulkOrderResult.success(offset + i, order.getId());
+            dataVersions.bump(DataVersions.Aggregate.ORDER);
+        }
+
+        //OSIV 환경에서는 영속성 컨텍스트가 요청 끝까지 살아있으므로, 청크마다 비워서 메모리가 쌓이지 않게 한다.
+        em.flush();
+        em.clear();
+        return Arrays.asList(results);
+    }
+
+    private void validate(BulkOrderCommand command, Map<Long, Member> members, Map<Long, Item> items) {
+        if (!members.containsKey(command.getMemberId())) {
+            throw new IllegalArgumentException("존재하지 않는 회원입니다. memberId=" + command.getMemberId());
+        }
+        if (command.getLines() == null || command.getLines().isEmpty()) {
+            throw new IllegalArgumentException("주문상품이 없습니다.");
+        }
+        for (BulkOrderCommand.Line line : command.getLines()) {
+            if (!items.containsKey(line.getItemId())) {
+                throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId=" + line.getItemId());
+            }
+            if (line.getCount() <= 0) {
+                throw new IllegalArgumentException("주문수량은 1개 이상이어야 합니다.");
+            }
+        }
+    }
+
+    /**
+     * 청크 안의 모든 주문상품을 상품 id 순으로 예약한다. 청크 트랜잭션은 커밋할 때까지 item row 락을 잡고 있으므로,
+     * 요청 순서대로 예약하면 동시에 실행되는 청크끼리 서로 다른 순서로 락을 잡아 데드락이 날 수 있다.
+     * 주문상품 중 하나라도 재고가 부족하면, 같은 주문이 이미 예약한 재고를 되돌리고 주문 전체를 실패시킨다.
+     * (되돌리는 상품은 id가 더 작아서 이미 락을 잡고 있다.)
+     */
+    private void reserve(int offset, List<BulkOrderCommand> chunk, BulkOrderResult[] results) {
+        List<Map.Entry<Integer, BulkOrderCommand.Line>> lines = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (results[i] == null) {
+                for (BulkOrderCommand.Line line : chunk.get(i).getLines()) {
+                    lines.add(Map.entry(i, line));
+                }
+            }
+        }
+        lines.sort(Comparator.comparing((Map.Entry<Integer, BulkOrderCommand.Line> e) -> e.getValue().getItemId())
+                .thenComparing(Map.Entry::getKey));
+
+        Map<Integer, List<BulkOrderCommand.Line>> reserved = new HashMap<>();
+        for (Map.Entry<Integer, BulkOrderCommand.Line> entry : lines) {
+            int i = entry.getKey();
+            BulkOrderCommand.Line line = entry.getValue();
+            if (results[i] != null) {
+                continue;
+            }
+            if (stockService.tryReserve(line.getItemId(), line.getCount())) {
+                reserved.computeIfAbsent(i, k -> new ArrayList<>()).add(line);
+            } else {
+                reserved.getOrDefault(i, List.of()).forEach(r -> stockService.release(r.getItemId(), r.getCount()));
+                results[i] = BulkOrderResult.failure(offset + i,
+                        new NotEnoughStockException("재고가 부족합니다. itemId=" + line.getItemId()));
+            }
+        }
+    }
+
+    private Order createOrder(BulkOrderCommand command, Map<Long, Member> members, Map<Long, Item> items) {
+        Member member = members.get(command.getMemberId());
+
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        delivery.setStatus(DeliveryStatus.READY);
+
+        OrderItem[] orderItems = command.getLines().stream()
+                .map(line -> {
+                    Item item = items.get(line.getItemId());
+                    return OrderItem.createReservedOrderItem(item, item.getPrice(), line.getCount());
+                })
+                .toArray(OrderItem[]::new);
+
+        return Order.createOrder(member, delivery, orderItems);
+    }
+}
@@ -0,0 +1,93 @@
+package jpashop_recap.project1.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 애그리거트(회원, 상품, 주문)별 변경 버전
+ * 쓰기 서비스가 변경을 커밋할 때마다 버전이 1씩 증가한다. 조회 API는 이 버전으로 ETag를 만들어서,
+ * 클라이언트가 If-None-Match로 같은 ETag를 보내면 쿼리/직렬화 없이 304를 응답한다.
+ * - 서버가 다시 뜨면 버전이 0부터 시작하므로, 기동 시각(epoch)을 ETag에 함께 넣어 이전 ETag와 겹치지 않게 한다.
+ * - 버전은 서버 메모리에만 있으므로 서버가 한 대일 때만 올바르다.
+ *   서버가 여러 대면 다른 서버에서 커밋된 변경으로는 이 서버의 버전이 오르지 않아서, 변경 전 ETag에 304를 응답한다. (오래된 응답)
+ *   그래서 jpashop.etag.single-node=true로 한 대임을 명시했을 때만 ETag를 사용한다. (기본은 끔)
+ *   버전을 DB row에 두면 여러 대에서도 맞지만, 주문마다 같은 row를 UPDATE하게 되어 모든 주문 쓰기가 그 row 락에서 줄을 선다.
+ * - 복제본 라우팅을 켜면 커밋 직후 복제본이 아직 따라오지 못한 상태로 새 ETag를 붙일 수 있다. (최대 jpashop.datasource.routing.max-lag-millis)
+ */
+@Component
+public class DataVersions {
+
+    public enum Aggregate { MEMBER, ITEM, ORDER }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Aggregate, AtomicLong> versions = new EnumMap<>(Aggregate.class);
+    private final boolean enabled;
+
+    public DataVersions(@Value("${jpashop.etag.single-node:false}") boolean enabled) {
+        this.enabled = enabled;
+        for (Aggregate aggregate : Aggregate.values()) {
+            versions.put(aggregate, new AtomicLong());
+        }
+    }
+
+    /**
+     * 변경 알림. 트랜잭션 안이면 커밋된 뒤에 한 번만 올린다.
+     * 커밋 전에 올리면, 그 사이에 조회한 클라이언트가 변경 전 데이터를 새 ETag로 캐시해 버린다.
+     */
+    public void bump(Aggregate aggregate) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            versions.get(aggregate).incrementAndGet();
+            return;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingBump pending && pending.owner() == this) {
+                pending.changed().add(aggregate);
+                return;
+            }
+        }
+        PendingBump pending = new PendingBump(this, EnumSet.of(aggregate));
+        TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+
+    /**
+     * 조회 API가 ETag / 304를 사용해도 되는지 (서버가 한 대일 때만)
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long version(Aggregate aggregate) {
+        return versions.get(aggregate).get();
+    }
+
+    /**
+     * 응답이 의존하는 애그리거트들의 버전으로 만든 strong ETag. ex) "members:lq2x8k-3"
+     * 조회 쿼리보다 먼저 만들어야 한다. (조회 중에 커밋된 변경은 다음 요청에서 새 ETag로 잡힌다.)
+     */
+    public String etag(String resource, Aggregate... aggregates) {
+        StringBuilder sb = new StringBuilder("\"").append(resource).append(':').append(epoch);
+        for (Aggregate aggregate : aggregates) {
+            sb.append('-').append(version(aggregate));
+        }
+        return sb.append('"').toString();
+    }
+
+    //트랜잭션(REQUIRES_NEW로 분리된 트랜잭션 포함)마다 하나씩 등록된다.
+    private record PendingBump(DataVersions owner, Set<Aggregate> changed) implements TransactionSynchronization {
+
+        @Override
+        public void afterCommit() {
+            for (Aggregate aggregate : changed) {
+                owner.versions.get(aggregate).incrementAndGet();
+            }
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package jpashop_recap.project1.service;
 
+import jpashop_recap.project1.domain.ItemSearch;
 import jpashop_recap.project1.domain.item.Item;
 import jpashop_recap.project1.repository.ItemRepository;
+import jpashop_recap.project1.repository.query.dto.ItemCatalogDto;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 1) 상품 추가  2) 전체 상품 조회
@@ -18,6 +24,8 @@ import java.util.List;
 public class ItemService {
 
     private final ItemRepository itemRepository;
+    private final DataVersions dataVersions;
+    private final StockBucketService stockBucketService;
 
     /**
      * 기능1 - 상품 추가
@@ -25,6 +33,7 @@ public class ItemService {
     @Transactional
     public void saveItem(Item item) {
         itemRepository.save(item);
+        dataVersions.bump(DataVersions.Aggregate.ITEM);
     }
 
     /**
@@ -34,6 +43,34 @@ public class ItemService {
         return itemRepository.findAll();
     }
 
+    /**
+     * 기능3 - 상품 카탈로그 조회 (DTO, 종류/이름 접두어 검색)
+     */
+    public Slice<ItemCatalogDto> findCatalogPage(ItemSearch itemSearch, int page, int size) {
+        //size + 1개를 읽어서 다음 페이지가 있는지 판단한다. (count 쿼리 없음)
+        List<ItemCatalogDto> content = withBucketStock(itemRepository.findCatalog(itemSearch, (long) page * size, size + 1));
+        boolean hasNext = content.size() > size;
+        return new SliceImpl<>(hasNext ? content.subList(0, size) : content, PageRequest.of(page, size), hasNext);
+    }
+
+    public List<ItemCatalogDto> findCatalogAfter(ItemSearch itemSearch, String lastName, Long lastId, int limit) {
+        return withBucketStock(itemRepository.findCatalogAfter(itemSearch, lastName, lastId, limit));
+    }
+
+    //분산 재고 모드인 상품은 item.stock_quantity에 버킷 합계를 더해서 보여준다.
+    private List<ItemCatalogDto> withBucketStock(List<ItemCatalogDto> items) {
+        Map<Long, Long> bucketTotals = stockBucketService.bucketTotals(items.stream().map(ItemCatalogDto::getId).toList());
+        if (!bucketTotals.isEmpty()) {
+            items.forEach(i -> i.setStockQuantity((int) (i.getStockQuantity() + bucketTotals.getOrDefault(i.getId(), 0L))));
+        }
+        return items;
+    }
+
+    //전체 재고 (분산 재고 모드면 버킷 합계 포함)
+    public int findStockQuantity(Long itemId) {
+        return stockBucketService.available(itemId);
+    }
+
     public Item findOne(Long itemId) {
         return itemRepository.findOne(itemId);
     }
@@ -49,7 +86,13 @@ public class ItemService {
         Item item = itemRepository.findOne(id);
         item.setName(name);
         item.setPrice(price);
-        item.setStockQuantity(stockQuantity);
+        if (stockBucketService.isSharded(id)) {
+            stockBucketService.reset(id, stockQuantity);
+        } else {
+            item.setStockQuantity(stockQuantity);
+        }
+        dataVersions.bump(DataVersions.Aggregate.ITEM);
+        //2차 캐시의 item은 커밋 시점에 변경된 값으로 함께 갱신되고, 목록 쿼리 캐시는 item 테이블 변경으로 무효화된다.
     }
 
 }
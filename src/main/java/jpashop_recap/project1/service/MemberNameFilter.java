@@ -0,0 +1,112 @@
+package jpashop_recap.project1.service;
+
+import jpashop_recap.project1.repository.MemberRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * 회원 이름 Bloom filter
+ * mightContain이 false면 그 이름은 DB에 확실히 없으므로, 중복 회원 검사 쿼리를 생략할 수 있다.
+ * true면 실제로 있을 수도, 아닐 수도 있으므로(false positive) DB를 조회해서 확인한다.
+ * 서버가 뜰 때 전체 회원 이름으로 다시 만들고, 회원가입/이름 수정 시 새 이름을 추가한다.
+ * (Bloom filter는 삭제가 안 되므로 바뀌기 전 이름은 남아있지만, 쿼리를 한 번 더 할 뿐 결과는 틀리지 않는다.)
+ */
+@Slf4j
+@Component
+public class MemberNameFilter {
+
+    private final MemberRepository memberRepository;
+    private final int bitCount;
+    private final int hashCount;
+    private volatile AtomicLongArray bits;
+
+    public MemberNameFilter(MemberRepository memberRepository,
+                            @Value("${jpashop.member.name-filter.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${jpashop.member.name-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.memberRepository = memberRepository;
+        //m = -n * ln(p) / (ln2)^2,  k = m / n * ln2
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Math.max(m, 64), Integer.MAX_VALUE - 63);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray((bitCount + 63) / 64);
+    }
+
+    /**
+     * InitDb 등 시작 시 데이터가 모두 들어간 뒤에 전체 회원 이름으로 다시 만든다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        AtomicLongArray rebuilt = new AtomicLongArray(bits.length());
+        long count;
+        try (Stream<String> names = memberRepository.streamAllNames()) {
+            count = names.peek(name -> put(rebuilt, name)).count();
+        }
+        //다시 만드는 동안 추가된 이름이 빠질 수 있지만, 그 경우에도 unique 제약조건이 중복 가입을 막아준다.
+        bits = rebuilt;
+        log.info("member name filter rebuilt. names={}, bits={}, hashes={}", count, bitCount, hashCount);
+    }
+
+    public void put(String name) {
+        put(bits, name);
+    }
+
+    public boolean mightContain(String name) {
+        if (name == null) {
+            return false;
+        }
+        AtomicLongArray current = bits;
+        long hash = hash64(name);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+            if ((current.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void put(AtomicLongArray target, String name) {
+        if (name == null) {
+            return;
+        }
+        long hash = hash64(name);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+            long mask = 1L << bit;
+            int index = bit >>> 6;
+            long old;
+            do {
+                old = target.get(index);
+                if ((old & mask) != 0) {
+                    break;
+                }
+            } while (!target.compareAndSet(index, old, old | mask));
+        }
+    }
+
+    //FNV-1a 64bit 후 비트를 한 번 더 섞어서, 상위/하위 32비트를 두 개의 해시로 사용한다. (double hashing)
+    private static long hash64(String name) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
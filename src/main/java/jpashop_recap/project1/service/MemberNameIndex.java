@@ -0,0 +1,184 @@
+package jpashop_recap.project1.service;
+
+import jpashop_recap.project1.repository.MemberRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 회원 이름 trigram(3글자) 인덱스
+ * 주문 검색의 회원명 LIKE 조건은 member 전체를 스캔하므로, 메모리에서 이름 → 회원 id 집합으로 바꿔서
+ * 주문 검색을 member_id in (...) 조건(인덱스 조회)으로 바꿀 수 있게 해준다.
+ * 짧은 패턴은 회원 대부분과 일치할 수 있으므로, 호출하는 쪽에서 limit으로 개수를 제한하고 넘으면 LIKE 조인으로 조회한다.
+ * 1) 패턴에서 와일드카드가 없는 가장 긴 조각의 trigram으로 후보를 좁히고  2) 후보 이름을 LIKE 규칙 그대로 다시 확인한다.
+ * 서버가 뜰 때 전체 회원으로 만들고, 회원가입/이름 수정이 커밋되면 반영한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberNameIndex {
+
+    private static final int GRAM = 3;
+
+    private final MemberRepository memberRepository;
+
+    private final Map<Long, String> namesById = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> idsByGram = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        namesById.clear();
+        idsByGram.clear();
+        try (Stream<Object[]> rows = memberRepository.streamAllIdAndNames()) {
+            rows.forEach(row -> index((Long) row[0], (String) row[1]));
+        }
+        log.info("member name index rebuilt. members={}, grams={}", namesById.size(), idsByGram.size());
+    }
+
+    /**
+     * 회원 이름 추가/변경. 트랜잭션 안이면 커밋된 뒤에 반영해서, 롤백된 회원이 검색되지 않게 한다.
+     */
+    public void put(Long memberId, String name) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index(memberId, name);
+                }
+            });
+        } else {
+            index(memberId, name);
+        }
+    }
+
+    /**
+     * SQL LIKE 패턴(%, _, \\ 이스케이프)과 일치하는 이름을 가진 회원 id 목록 (최대 limit개)
+     */
+    public List<Long> findIdsByNameLike(String likePattern, int limit) {
+        Pattern regex = toRegex(likePattern);
+        String literal = longestLiteral(likePattern);
+
+        Collection<Long> candidates = literal.length() >= GRAM ? candidates(literal) : namesById.keySet();
+        List<Long> result = new ArrayList<>();
+        for (Long id : candidates) {
+            String name = namesById.get(id);
+            if (name != null && regex.matcher(name).matches()) {
+                result.add(id);
+                if (result.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    //가상 스레드에서 synchronized는 캐리어 스레드를 고정시키므로 ReentrantLock을 사용한다.
+    private void index(Long memberId, String name) {
+        lock.lock();
+        try {
+            reindex(memberId, name);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reindex(Long memberId, String name) {
+        String old = namesById.put(memberId, name);
+        if (old != null) {
+            for (String gram : grams(old)) {
+                Set<Long> ids = idsByGram.get(gram);
+                if (ids != null) {
+                    ids.remove(memberId);
+                }
+            }
+        }
+        for (String gram : grams(name)) {
+            idsByGram.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(memberId);
+        }
+    }
+
+    //literal의 모든 trigram을 가진 id만 남긴다. 가장 작은 집합부터 교집합을 구한다.
+    private Collection<Long> candidates(String literal) {
+        List<Set<Long>> sets = new ArrayList<>();
+        for (String gram : grams(literal)) {
+            Set<Long> ids = idsByGram.get(gram);
+            if (ids == null || ids.isEmpty()) {
+                return List.of();
+            }
+            sets.add(ids);
+        }
+        sets.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> result = new HashSet<>(sets.get(0));
+        for (int i = 1; i < sets.size() && !result.isEmpty(); i++) {
+            result.retainAll(sets.get(i));
+        }
+        return result;
+    }
+
+    private static Set<String> grams(String s) {
+        if (s == null || s.length() < GRAM) {
+            return Set.of();
+        }
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= s.length(); i++) {
+            grams.add(s.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static String longestLiteral(String likePattern) {
+        String longest = "";
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < likePattern.length(); i++) {
+            char c = likePattern.charAt(i);
+            if (c == '\\' && i + 1 < likePattern.length()) {
+                current.append(likePattern.charAt(++i));
+            } else if (c == '%' || c == '_') {
+                if (current.length() > longest.length()) {
+                    longest = current.toString();
+                }
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        return current.length() > longest.length() ? current.toString() : longest;
+    }
+
+    private static Pattern toRegex(String likePattern) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < likePattern.length(); i++) {
+            char c = likePattern.charAt(i);
+            if (c == '\\' && i + 1 < likePattern.length()) {
+                literal.append(likePattern.charAt(++i));
+            } else if (c == '%' || c == '_') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '%' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+}
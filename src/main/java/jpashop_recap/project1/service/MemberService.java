@@ -2,12 +2,19 @@ package jpashop_recap.project1.service;
 
 import jpashop_recap.project1.domain.Member;
 import jpashop_recap.project1.repository.MemberRepository;
+import jpashop_recap.project1.repository.query.dto.MemberAddressListDto;
+import jpashop_recap.project1.repository.query.dto.MemberListDto;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * 1) 회원가입  2) 전체 회원 조회
@@ -20,6 +27,10 @@ public class MemberService {
     //생성자 의존관계 주입. 생성자가 하나면 @Autowired 생략해도 무관.
     @Autowired
     private final MemberRepository memberRepository;
+    private final MemberNameFilter memberNameFilter;
+    private final MemberNameIndex memberNameIndex;
+    private final DataVersions dataVersions;
+    private final OrderSummaryService orderSummaryService;
 
     /**
      * 기능1 - 회원가입
@@ -27,11 +38,23 @@ public class MemberService {
     @Transactional //이 메소드는 변경이 가능하도록 한다.
     public Long join(Member member) {
         validateDuplicateMember(member);
-        memberRepository.save(member);
+        try {
+            //동시에 같은 이름으로 가입하면 검사를 둘 다 통과할 수 있으므로, 바로 flush해서 unique 제약조건으로 한 번 더 막는다.
+            memberRepository.saveAndFlush(member);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("이미 존재하는 회원입니다.", e);
+        }
+        memberNameFilter.put(member.getName());
+        memberNameIndex.put(member.getId(), member.getName());
+        dataVersions.bump(DataVersions.Aggregate.MEMBER);
         return member.getId();
     }
 
     private void validateDuplicateMember(Member member) {
+        //filter에 없는 이름은 DB에도 없으므로 쿼리를 생략한다.
+        if (!memberNameFilter.mightContain(member.getName())) {
+            return;
+        }
         List<Member> findMembers = memberRepository.findByName(member.getName());
         if (!findMembers.isEmpty()) {
             throw new IllegalStateException("이미 존재하는 회원입니다.");
@@ -45,6 +68,24 @@ public class MemberService {
         return memberRepository.findAll();
     }
 
+    /**
+     * 기능2-1 - 회원 목록 DTO 조회 (엔티티를 만들지 않는다.)
+     */
+    public List<MemberListDto> findMemberPage(Long lastMemberId, int limit) {
+        return memberRepository.findListDtosAfter(lastMemberId == null ? 0L : lastMemberId, PageRequest.of(0, limit));
+    }
+
+    public Slice<MemberAddressListDto> findMemberSlice(int page, int size) {
+        return memberRepository.findListDtos(PageRequest.of(page, size));
+    }
+
+    //전체 회원을 한 명씩 consumer에 넘긴다. 스트림은 이 트랜잭션 안에서 열고 닫는다.
+    public void exportMembers(Consumer<MemberListDto> consumer) {
+        try (Stream<MemberListDto> members = memberRepository.streamAllListDtos()) {
+            members.forEach(consumer);
+        }
+    }
+
     public Member findOne(Long id) {
         //return memberRepository.findOne(id);      old_version 기준
         return memberRepository.findById(id).get();
@@ -58,6 +99,12 @@ public class MemberService {
         //Member member = memberRepository.findOne(id);     old_version 기준
         Member member = memberRepository.findById(id).get();
         member.setName(name);
+        memberNameFilter.put(name);
+        memberNameIndex.put(id, name);
+        //주문 요약(order_summary)에 펼쳐둔 회원 이름도 같은 트랜잭션에서 바꾼다.
+        orderSummaryService.onMemberRenamed(id, name);
+        dataVersions.bump(DataVersions.Aggregate.MEMBER);
+        //2차 캐시의 member는 커밋 시점에 변경된 값으로 함께 갱신되고, 목록 쿼리 캐시는 member 테이블 변경으로 무효화된다.
     }
 
 }
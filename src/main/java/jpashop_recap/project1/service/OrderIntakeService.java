@@ -0,0 +1,193 @@
+package jpashop_recap.project1.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jpashop_recap.project1.service.dto.BulkOrderCommand;
+import jpashop_recap.project1.service.dto.BulkOrderResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 비동기 주문 접수 (group commit)
+ * 주문 하나마다 트랜잭션을 커밋하면, 주문이 몰릴 때 커밋 대기 시간이 병목이 된다.
+ * 주문 요청을 lock-free 대기열(ConcurrentLinkedQueue + CAS 크기 제한)에 넣고, 전용 스레드 하나가
+ * 쌓여있는 요청을 최대 maxBatchSize개씩 꺼내 BulkOrderService로 한 트랜잭션에 처리한다.
+ * 앞 배치를 커밋하는 동안 들어온 요청이 다음 배치로 모이므로, 부하가 클수록 배치가 커진다.
+ * 호출자는 CompletableFuture로 주문 id를 받고, 재고 부족 등은 해당 주문만 예외로 완료된다.
+ * 배치 트랜잭션이 통째로 실패하면 (커밋 실패 등) 주문 하나 때문에 다른 주문까지 실패하지 않도록 주문별로 다시 처리한다.
+ */
+@Slf4j
+@Service
+public class OrderIntakeService {
+
+    private final BulkOrderService bulkOrderService;
+    private final boolean enabled;
+    private final int capacity;
+    private final int maxBatchSize;
+    private final long idleParkNanos;
+    private final long waitTimeoutMillis;
+
+    private final ConcurrentLinkedQueue<PendingOrder> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running;
+    private Thread drainer;
+
+    public OrderIntakeService(BulkOrderService bulkOrderService, MeterRegistry meterRegistry,
+                              @Value("${jpashop.order-intake.enabled:false}") boolean enabled,
+                              @Value("${jpashop.order-intake.capacity:10000}") int capacity,
+                              @Value("${jpashop.order-intake.max-batch-size:200}") int maxBatchSize,
+                              @Value("${jpashop.order-intake.idle-park-millis:1}") long idleParkMillis,
+                              @Value("${jpashop.order-intake.wait-timeout-millis:30000}") long waitTimeoutMillis) {
+        this.bulkOrderService = bulkOrderService;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.maxBatchSize = maxBatchSize;
+        this.idleParkNanos = TimeUnit.MILLISECONDS.toNanos(idleParkMillis);
+        this.waitTimeoutMillis = waitTimeoutMillis;
+
+        meterRegistry.gauge("jpashop.order.intake.queue.depth", depth);
+        this.batchSizes = DistributionSummary.builder("jpashop.order.intake.batch.size")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        drainer = new Thread(this::drainLoop, "order-intake-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stop(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * 드레이너가 남은 주문을 처리하기를 timeoutMillis까지 기다리고, 그래도 대기열에 남은 주문은 실패로 완료한다.
+     * (호출자가 끝나지 않는 future를 기다리지 않게 한다.)
+     */
+    void stop(long timeoutMillis) throws InterruptedException {
+        if (drainer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(drainer);
+        drainer.join(timeoutMillis);
+
+        PendingOrder pending;
+        while ((pending = queue.poll()) != null) {
+            depth.decrementAndGet();
+            pending.future.completeExceptionally(new RejectedExecutionException("주문 접수가 종료되어 처리하지 못했습니다."));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 호출자가 주문 결과를 기다릴 최대 시간. 시간이 지나도 주문은 나중에 커밋될 수 있다.
+     */
+    public long getWaitTimeoutMillis() {
+        return waitTimeoutMillis;
+    }
+
+    /**
+     * 주문 접수. 대기열이 가득 차면 RejectedExecutionException으로 바로 실패한다.
+     */
+    public CompletableFuture<Long> submit(Long memberId, Long itemId, int count) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("주문 접수가 동작하고 있지 않습니다."));
+        }
+        int current;
+        do {
+            current = depth.get();
+            if (current >= capacity) {
+                return CompletableFuture.failedFuture(new RejectedExecutionException("주문 대기열이 가득 찼습니다."));
+            }
+        } while (!depth.compareAndSet(current, current + 1));
+
+        PendingOrder pending = new PendingOrder(
+                new BulkOrderCommand(memberId, List.of(new BulkOrderCommand.Line(itemId, count))));
+        queue.offer(pending);
+        //확인과 offer 사이에 종료되었다면 드레이너가 이미 끝났을 수 있으므로, 아직 대기열에 있으면 꺼내서 거절한다.
+        if (!running && queue.remove(pending)) {
+            depth.decrementAndGet();
+            return CompletableFuture.failedFuture(new RejectedExecutionException("주문 접수가 동작하고 있지 않습니다."));
+        }
+        LockSupport.unpark(drainer);
+        return pending.future;
+    }
+
+    private void drainLoop() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            PendingOrder pending;
+            while (batch.size() < maxBatchSize && (pending = queue.poll()) != null) {
+                batch.add(pending);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(idleParkNanos);
+                continue;
+            }
+            depth.addAndGet(-batch.size());
+            batchSizes.record(batch.size());
+            process(batch);
+            batch.clear();
+        }
+    }
+
+    private void process(List<PendingOrder> batch) {
+        List<BulkOrderResult> results;
+        try {
+            results = bulkOrderService.order(batch.stream().map(p -> p.command).toList());
+        } catch (Throwable e) {
+            log.error("주문 배치 처리 실패. size={}", batch.size(), e);
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+            } else {
+                batch.forEach(p -> process(List.of(p)));
+            }
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            BulkOrderResult result = results.get(i);
+            if (result.isSuccess()) {
+                batch.get(i).future.complete(result.getOrderId());
+            } else if (result.isChunkFailed() && batch.size() > 1) {
+                //같은 트랜잭션의 다른 주문 때문에 롤백되었을 수 있으므로 혼자 다시 처리한다.
+                process(List.of(batch.get(i)));
+            } else {
+                batch.get(i).future.completeExceptionally(result.getCause());
+            }
+        }
+    }
+
+    private static class PendingOrder {
+        private final BulkOrderCommand command;
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+
+        private PendingOrder(BulkOrderCommand command) {
+            this.command = command;
+        }
+    }
+}
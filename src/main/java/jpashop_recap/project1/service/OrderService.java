@@ -6,8 +6,10 @@ import jpashop_recap.project1.repository.ItemRepository;
 import jpashop_recap.project1.repository.MemberRepository;
 import jpashop_recap.project1.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.util.List;
 
@@ -22,6 +24,15 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final StockService stockService;
+    private final OrderSummaryService orderSummaryService;
+    private final SalesRollupService salesRollupService;
+    private final DataVersions dataVersions;
+    private final MemberNameIndex memberNameIndex;
+
+    //회원명 검색에서 IN 절로 넘길 최대 회원 수. 넘으면 member 조인 + LIKE로 조회한다.
+    @Value("${jpashop.member.name-index.max-ids:1000}")
+    private int maxMemberIds;
 
     /**
      * 기능1-1 - 상품 주문 기능
@@ -33,6 +44,9 @@ public class OrderService {
      */
     @Transactional
     public Long order(Long memberId, Long itemId, int count) {
+        //재고 차감은 조건부 UPDATE로 먼저 처리한다. 재고가 부족하면 엔티티를 읽기 전에 예외가 발생한다.
+        stockService.reserve(itemId, count);
+
         Member member = memberRepository.findById(memberId).get();
         Item item = itemRepository.findOne(itemId);
 
@@ -40,11 +54,14 @@ public class OrderService {
         delivery.setAddress(member.getAddress());
         delivery.setStatus(DeliveryStatus.READY);
 
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        OrderItem orderItem = OrderItem.createReservedOrderItem(item, item.getPrice(), count);
 
         Order order = Order.createOrder(member, delivery, orderItem);
 
         orderRepository.save(order);
+        orderSummaryService.onOrdered(order);
+        salesRollupService.onOrdered(order);
+        dataVersions.bump(DataVersions.Aggregate.ORDER);
         return order.getId();
     }
 
@@ -54,14 +71,29 @@ public class OrderService {
     @Transactional
     public void cancelOrder(Long orderId) {
         Order order = orderRepository.findOne(orderId);
-        order.cancel();
+        order.cancelWithoutStock();
+        //item은 프록시 상태에서 id만 꺼내므로 Item 엔티티를 로딩하지 않는다.
+        for (OrderItem orderItem : order.getOrderItems()) {
+            stockService.release(orderItem.getItem().getId(), orderItem.getCount());
+        }
+        orderSummaryService.onCanceled(orderId);
+        salesRollupService.onCanceled(order);
+        dataVersions.bump(DataVersions.Aggregate.ORDER);
     }
 
     /**
      * 기능2 - 주문 현황 조회
      */
     public List<Order> findOrders(OrderSearch orderSearch) {
-        return orderRepository.findAll(orderSearch);
+        if (!StringUtils.hasText(orderSearch.getMemberName())) {
+            return orderRepository.findAll(orderSearch);
+        }
+        //한도보다 하나 더 찾아서, 넘으면 IN 절 대신 조인으로 조회한다.
+        List<Long> memberIds = memberNameIndex.findIdsByNameLike(orderSearch.getMemberName(), maxMemberIds + 1);
+        if (memberIds.size() > maxMemberIds) {
+            return orderRepository.findAll(orderSearch);
+        }
+        return orderRepository.findAll(orderSearch, memberIds);
     }
 
 }
@@ -0,0 +1,101 @@
+package jpashop_recap.project1.service;
+
+import jakarta.persistence.EntityManager;
+import jpashop_recap.project1.domain.Order;
+import jpashop_recap.project1.domain.OrderStatus;
+import jpashop_recap.project1.domain.OrderSummary;
+import jpashop_recap.project1.repository.OrderSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 주문 요약 읽기 모델 관리
+ * 1) 주문 생성/취소 시 요약 반영 (호출한 쪽 트랜잭션에 참여)  2) 목록 조회  3) 원본 테이블로부터 재구성
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class OrderSummaryService {
+
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager em;
+
+    @Transactional
+    public void onOrdered(Order order) {
+        orderSummaryRepository.save(OrderSummary.from(order));
+    }
+
+    @Transactional
+    public void onCanceled(Long orderId) {
+        OrderSummary summary = orderSummaryRepository.findOne(orderId);
+        if (summary != null) {
+            summary.changeStatus(OrderStatus.CANCEL);
+        }
+    }
+
+    @Transactional
+    public void onMemberRenamed(Long memberId, String memberName) {
+        orderSummaryRepository.updateMemberName(memberId, memberName);
+    }
+
+    public List<OrderSummary> findPage(Long lastOrderId, int limit) {
+        return orderSummaryRepository.findPage(lastOrderId, limit);
+    }
+
+    /**
+     * 재구성 작업 - [fromOrderId, toOrderId] 범위의 요약을 원본 테이블에서 다시 채운다.
+     * 큰 범위도 처리할 수 있도록 REBUILD_CHUNK_SIZE건씩 트랜잭션을 나눈다.
+     * 재구성 중에 커밋된 주문의 요약을 지우지 않도록, 청크에서 읽은 주문의 요약만 바꾸고 원본이 없는 요약만 정리한다.
+     * @return 다시 채운 요약 수
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int rebuild(Long fromOrderId, Long toOrderId) {
+        int rebuilt = 0;
+        long last = fromOrderId - 1;
+        while (true) {
+            long after = last;
+            List<OrderSummary> rows = transactionTemplate.execute(status -> {
+                List<OrderSummary> chunk = orderSummaryRepository.findSourceRows(after, toOrderId, REBUILD_CHUNK_SIZE);
+                if (!chunk.isEmpty()) {
+                    orderSummaryRepository.deleteByOrderIds(chunk.stream().map(OrderSummary::getOrderId).toList());
+                    chunk.forEach(orderSummaryRepository::save);
+                    em.flush();
+                    em.clear();
+                }
+                return chunk;
+            });
+            if (rows.isEmpty()) {
+                break;
+            }
+            rebuilt += rows.size();
+            last = rows.get(rows.size() - 1).getOrderId();
+        }
+        //원본이 지워진 주문의 요약 정리
+        transactionTemplate.executeWithoutResult(status -> orderSummaryRepository.deleteOrphans(fromOrderId, toOrderId));
+        log.info("order summary rebuilt. range=[{}, {}], rows={}", fromOrderId, toOrderId, rebuilt);
+        return rebuilt;
+    }
+
+    /**
+     * 요약 테이블이 비어있으면(첫 배포, InitDb 데이터 등) 서버가 뜬 뒤 전체를 채운다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfillIfEmpty() {
+        if (orderSummaryRepository.count() == 0) {
+            rebuild(1L, Long.MAX_VALUE);
+        }
+    }
+}
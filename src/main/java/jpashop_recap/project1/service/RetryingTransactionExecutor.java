@@ -0,0 +1,140 @@
+package jpashop_recap.project1.service;
+
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.StaleStateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 동시성 충돌(낙관적 락 버전 불일치, 락 대기 실패)이 나면 트랜잭션 전체를 다시 실행하는 실행기
+ * 충돌은 flush/커밋 시점에 드러나고 그 트랜잭션은 이미 롤백되므로, 트랜잭션 안에서는 다시 시도할 수 없다.
+ * 그래서 트랜잭션 바깥(컨트롤러)에서 호출하고, 시도마다 새 트랜잭션과 새 영속성 컨텍스트로 처음부터 다시 읽는다.
+ * - 재시도 간격: 지수 백오프 + full jitter. n번째 재시도는 0 ~ min(max, base * 2^n) 사이 임의 시간만큼 기다려서
+ *   함께 충돌한 요청들이 같은 시각에 다시 부딪치지 않게 한다.
+ * - 재시도 예산: 요청마다 budget-ratio만큼 토큰이 쌓이고 재시도 한 번에 1개를 쓴다.
+ *   충돌이 폭주할 때 재시도가 부하를 더 키우지 않도록, 토큰이 없으면 기다리지 않고 바로 실패시킨다.
+ * - 메트릭: jpashop.tx.conflict, jpashop.tx.retry, jpashop.tx.retry.exhausted (operation 태그), jpashop.tx.retry.budget
+ */
+@Slf4j
+@Component
+public class RetryingTransactionExecutor {
+
+    //예산은 1/1000 토큰 단위로 센다.
+    private static final long TOKEN = 1000;
+
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicLong budget = new AtomicLong();
+
+    @Value("${jpashop.tx-retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${jpashop.tx-retry.base-backoff-millis:5}")
+    private long baseBackoffMillis;
+
+    @Value("${jpashop.tx-retry.max-backoff-millis:100}")
+    private long maxBackoffMillis;
+
+    @Value("${jpashop.tx-retry.budget-ratio:0.1}")
+    private double budgetRatio;
+
+    @Value("${jpashop.tx-retry.budget-capacity:100}")
+    private long budgetCapacity;
+
+    public RetryingTransactionExecutor(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Metrics.gauge("jpashop.tx.retry.budget", budget, b -> (double) b.get() / TOKEN);
+    }
+
+    //기동 직후에도 재시도할 수 있도록 예산을 가득 채워서 시작한다.
+    @PostConstruct
+    public void init() {
+        budget.set(budgetCapacity * TOKEN);
+    }
+
+    public void run(String operation, Runnable action) {
+        execute(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * action을 새 트랜잭션에서 실행하고, 동시성 충돌이면 최대 max-attempts번까지 다시 실행한다.
+     * 충돌이 아닌 예외(재고 부족, 검증 실패 등)는 다시 시도하지 않고 그대로 던진다.
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            //바깥 트랜잭션에 참여하면 충돌 시 바깥 트랜잭션까지 rollback-only가 되므로 다시 시도할 수 없다.
+            return action.get();
+        }
+        deposit();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (RuntimeException e) {
+                if (!isConflict(e)) {
+                    throw e;
+                }
+                Metrics.counter("jpashop.tx.conflict", "operation", operation).increment();
+                if (attempt >= maxAttempts) {
+                    throw exhausted(operation, "attempts", attempt, e);
+                }
+                if (!withdraw()) {
+                    throw exhausted(operation, "budget", attempt, e);
+                }
+                Metrics.counter("jpashop.tx.retry", "operation", operation).increment();
+                log.debug("transaction conflict. operation={}, attempt={}, cause={}", operation, attempt, e.toString());
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    private static boolean isConflict(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ConcurrencyFailureException
+                    || t instanceof OptimisticLockException
+                    || t instanceof StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private RuntimeException exhausted(String operation, String reason, int attempts, RuntimeException e) {
+        Metrics.counter("jpashop.tx.retry.exhausted", "operation", operation, "reason", reason).increment();
+        log.warn("transaction retry exhausted. operation={}, reason={}, attempts={}", operation, reason, attempts);
+        return e;
+    }
+
+    //요청마다 budgetRatio 토큰을 쌓는다. (최대 budgetCapacity)
+    private void deposit() {
+        long amount = (long) (budgetRatio * TOKEN);
+        long capacity = budgetCapacity * TOKEN;
+        budget.updateAndGet(b -> Math.min(capacity, b + amount));
+    }
+
+    private boolean withdraw() {
+        return budget.getAndUpdate(b -> b >= TOKEN ? b - TOKEN : b) >= TOKEN;
+    }
+
+    private void backoff(int attempt, RuntimeException e) {
+        long ceiling = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package jpashop_recap.project1.service;
+
+import jpashop_recap.project1.domain.ItemDailySales;
+import jpashop_recap.project1.domain.ItemDailySalesId;
+import jpashop_recap.project1.domain.Order;
+import jpashop_recap.project1.domain.OrderItem;
+import jpashop_recap.project1.repository.SalesRollupRepository;
+import jpashop_recap.project1.repository.query.dto.ItemSalesDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * 상품별 일 매출 롤업(item_daily_sales) 관리
+ * 1) 주문 생성/취소 시 증감분 반영 (호출한 쪽 트랜잭션에 참여)  2) 조회  3) 원본 테이블로부터 기간 재구성
+ * 증감분은 트랜잭션이 끝날 때까지 (상품, 주문일)별로 모아뒀다가 커밋 직전에 MERGE로 한 번에 반영한다.
+ * => 대량 주문(청크 500건)도 같은 상품/날짜는 row 하나만 고치고, 롤업 반영이 실패하면 주문도 함께 롤백된다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class SalesRollupService {
+
+    //재구성 트랜잭션 하나가 다루는 기간(일)
+    private static final int REBUILD_WINDOW_DAYS = 7;
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Transactional
+    public void onOrdered(Order order) {
+        record(order, 1);
+    }
+
+    //취소는 원래 주문일 row에서 뺀다. (OrderItem.cancel/StockService.release로 재고가 복구되는 만큼 판매량도 줄어든다.)
+    @Transactional
+    public void onCanceled(Order order) {
+        record(order, -1);
+    }
+
+    //대량 취소. 주문 엔티티 대신 (상품, 주문일)별 합계를 쿼리 한 번으로 읽어서 뺀다. 주문 상태를 바꾸기 전후 어느 쪽에서 불러도 된다.
+    @Transactional
+    public void onCanceled(Collection<Long> orderIds) {
+        PendingDeltas pending = pendingDeltas();
+        for (ItemDailySales sales : salesRollupRepository.findSalesOfOrders(orderIds)) {
+            pending.deltas.computeIfAbsent(sales.getId(), ItemDailySales::new)
+                    .add(-sales.getUnits(), -sales.getRevenue(), -sales.getOrderLines());
+        }
+    }
+
+    private void record(Order order, int sign) {
+        LocalDate day = order.getOrderDate().toLocalDate();
+        PendingDeltas pending = pendingDeltas();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            //item은 프록시 상태에서 id만 꺼내므로 Item 엔티티를 로딩하지 않는다.
+            ItemDailySalesId key = new ItemDailySalesId(orderItem.getItem().getId(), day);
+            pending.deltas.computeIfAbsent(key, ItemDailySales::new)
+                    .add((long) sign * orderItem.getCount(), sign * orderItem.getTotalPrice(), sign);
+        }
+    }
+
+    //현재 트랜잭션에 등록된 증감분 버퍼. 없으면 새로 등록한다.
+    private PendingDeltas pendingDeltas() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingDeltas pending && pending.owner == this) {
+                return pending;
+            }
+        }
+        PendingDeltas pending = new PendingDeltas(this);
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private static class PendingDeltas implements TransactionSynchronization {
+
+        //키 순서(상품 id, 날짜)로 정렬해서 반영해야 동시에 같은 row를 고치는 트랜잭션끼리 데드락이 나지 않는다.
+        private final Map<ItemDailySalesId, ItemDailySales> deltas = new TreeMap<>(
+                Comparator.comparing(ItemDailySalesId::getItemId).thenComparing(ItemDailySalesId::getSalesDate));
+        private final SalesRollupService owner;
+
+        private PendingDeltas(SalesRollupService owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            List<ItemDailySales> changed = deltas.values().stream()
+                    .filter(d -> d.getUnits() != 0 || d.getRevenue() != 0 || d.getOrderLines() != 0)
+                    .toList();
+            if (!changed.isEmpty()) {
+                owner.salesRollupRepository.mergeDeltas(changed);
+            }
+        }
+    }
+
+    //==조회==//
+    public List<ItemSalesDto> findDaily(LocalDate from, LocalDate to, Long itemId) {
+        return salesRollupRepository.findDaily(from, to, itemId);
+    }
+
+    public List<ItemSalesDto> findTopItems(LocalDate from, LocalDate to, int limit) {
+        return salesRollupRepository.findTopItems(from, to, limit);
+    }
+
+    /**
+     * 재구성(catch-up) 작업 - [from, to) 기간의 롤업을 지우고 원본 테이블(order_item + orders)에서 다시 채운다.
+     * REBUILD_WINDOW_DAYS일씩 트랜잭션을 나눠서, 한 번에 긴 락을 잡지 않는다.
+     * 재구성 중인 기간에 들어온 주문/취소는 반영 시점에 따라 빠지거나 두 번 들어갈 수 있으므로, 주문이 적은 시간에 돌리거나 한 번 더 돌린다.
+     * @return 다시 채운 (상품, 날짜) row 수
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int rebuild(LocalDate from, LocalDate to) {
+        int rebuilt = 0;
+        for (LocalDate start = from; start.isBefore(to); start = start.plusDays(REBUILD_WINDOW_DAYS)) {
+            LocalDate windowStart = start;
+            LocalDate windowEnd = start.plusDays(REBUILD_WINDOW_DAYS).isBefore(to) ? start.plusDays(REBUILD_WINDOW_DAYS) : to;
+            rebuilt += transactionTemplate.execute(status -> {
+                salesRollupRepository.deleteRange(windowStart, windowEnd);
+                return salesRollupRepository.insertFromSource(windowStart, windowEnd);
+            });
+        }
+        log.info("item daily sales rebuilt. range=[{}, {}), rows={}", from, to, rebuilt);
+        return rebuilt;
+    }
+
+    //원본 주문이 있는 전체 기간 재구성
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int rebuildAll() {
+        LocalDate[] range = transactionTemplate.execute(status -> salesRollupRepository.findSourceDateRange());
+        if (range == null) {
+            return 0;
+        }
+        return rebuild(range[0], range[1].plusDays(1));
+    }
+
+    /**
+     * 롤업 테이블이 비어있으면(첫 배포, InitDb 데이터 등) 서버가 뜬 뒤 전체를 채운다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfillIfEmpty() {
+        if (salesRollupRepository.count() == 0) {
+            rebuildAll();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package jpashop_recap.project1.service;
+
+import io.micrometer.core.instrument.Metrics;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jpashop_recap.project1.domain.StockBucket;
+import jpashop_recap.project1.domain.item.Item;
+import jpashop_recap.project1.repository.StockBucketRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 분산 재고 모드 (상품 재고를 N개 버킷 row로 나눠서 관리)
+ * 1) 분산/해제  2) 버킷 단위 차감/복구  3) 재분배(rebalance)
+ * - 차감: 임의의 버킷부터 시작해서 조건부 UPDATE가 성공하는 버킷을 찾는다. (주문마다 다른 row를 고치므로 락 경합이 1/N로 줄어든다.)
+ * - 재분배: 어느 버킷에도 주문 수량만큼 남아있지 않으면(버킷이 고르지 않게 빠진 경우) 모든 버킷을 락으로 잡고
+ *   전체 합계를 다시 고르게 나눈 뒤, 그 자리에서 차감한다. 전체 합계가 부족할 때만 재고 부족이다.
+ * 어떤 상품이 분산 모드인지는 메모리(bucketCounts)에 두고, 다른 서버에서 바뀐 경우는 차감이 실패할 때 DB에서 다시 확인한다.
+ */
+@Slf4j
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class StockBucketService {
+
+    private final StockBucketRepository stockBucketRepository;
+    private final EntityManager em;
+
+    @Value("${jpashop.stock.sharding.default-buckets:8}")
+    private int defaultBuckets;
+
+    //분산 재고 모드인 상품 id → 버킷 수
+    private final Map<Long, Integer> bucketCounts = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadBucketCounts() {
+        bucketCounts.clear();
+        for (Object[] row : stockBucketRepository.countBucketsByItem()) {
+            bucketCounts.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+        log.info("stock buckets loaded. shardedItems={}", bucketCounts.size());
+    }
+
+    public boolean isSharded(Long itemId) {
+        return bucketCounts.containsKey(itemId);
+    }
+
+    public int getDefaultBuckets() {
+        return defaultBuckets;
+    }
+
+    /**
+     * 분산 재고 모드로 전환 - 상품의 현재 재고를 buckets개 버킷에 고르게 옮기고 item.stock_quantity는 0으로 둔다.
+     * 상품 row를 락으로 잡고 옮기므로, 전환 중에 들어온 주문은 전환이 끝날 때까지 기다린다.
+     */
+    public void shard(Long itemId, int buckets) {
+        if (buckets < 1) {
+            throw new IllegalArgumentException("버킷 수는 1개 이상이어야 합니다.");
+        }
+        Item item = lockItem(itemId);
+        if (!stockBucketRepository.findAllForUpdate(itemId).isEmpty()) {
+            throw new IllegalStateException("이미 분산 재고 모드인 상품입니다. itemId=" + itemId);
+        }
+        int[] quantities = distribute(item.getStockQuantity(), buckets);
+        for (int i = 0; i < buckets; i++) {
+            stockBucketRepository.save(new StockBucket(itemId, i, quantities[i]));
+        }
+        item.setStockQuantity(0);
+        afterCommit(() -> bucketCounts.put(itemId, buckets));
+    }
+
+    /**
+     * 분산 재고 모드 해제 - 버킷 합계를 item.stock_quantity로 되돌리고 버킷을 지운다.
+     */
+    public void unshard(Long itemId) {
+        Item item = lockItem(itemId);
+        List<StockBucket> buckets = stockBucketRepository.findAllForUpdate(itemId);
+        int total = buckets.stream().mapToInt(StockBucket::getQuantity).sum();
+        item.setStockQuantity(item.getStockQuantity() + total);
+        stockBucketRepository.deleteAll(itemId);
+        afterCommit(() -> bucketCounts.remove(itemId));
+    }
+
+    /**
+     * 버킷에서 재고 차감. 예외를 던지지 않으므로 호출한 쪽 트랜잭션을 rollback-only로 만들지 않는다.
+     * @return 차감 성공 여부 (false면 전체 재고 부족이거나, 더 이상 분산 모드가 아닌 상품. 후자는 isSharded도 false가 된다.)
+     */
+    public boolean tryRemove(Long itemId, int count) {
+        Integer buckets = bucketCounts.get(itemId);
+        if (buckets == null) {
+            return false;
+        }
+        int start = ThreadLocalRandom.current().nextInt(buckets);
+        for (int i = 0; i < buckets; i++) {
+            if (stockBucketRepository.removeStock(itemId, (start + i) % buckets, count) > 0) {
+                return true;
+            }
+        }
+        return rebalanceAndTake(itemId, count);
+    }
+
+    /**
+     * 버킷에 재고 복구 (주문 취소). 임의의 버킷 하나에 더한다. 편중은 다음 재분배 때 풀린다.
+     * @return 복구 성공 여부 (false면 분산 모드가 아닌 상품)
+     */
+    public boolean add(Long itemId, int count) {
+        Integer buckets = bucketCounts.get(itemId);
+        if (buckets == null) {
+            return false;
+        }
+        return stockBucketRepository.addStock(itemId, ThreadLocalRandom.current().nextInt(buckets), count) > 0;
+    }
+
+    /**
+     * 재분배만 수행 (관리용). item.stock_quantity에 남은 재고(분산 전환 중에 취소된 주문 등)도 버킷으로 옮긴다.
+     * @return 전체 재고
+     */
+    public int rebalance(Long itemId) {
+        rebalanceAndTake(itemId, 0);
+        return available(itemId);
+    }
+
+    //모든 버킷 + 상품 row를 락으로 잡고, 합계에서 count를 뺀 나머지를 고르게 다시 나눈다.
+    private boolean rebalanceAndTake(Long itemId, int count) {
+        Item item = lockItem(itemId);
+        List<StockBucket> buckets = stockBucketRepository.findAllForUpdate(itemId);
+        if (buckets.isEmpty()) {
+            //다른 서버에서 분산 모드를 해제한 상품. 바로 지워야 호출한 쪽(StockService)이 item row 차감으로 넘어간다.
+            //커밋 뒤에 지우면, 재고 부족으로 롤백될 때 지워지지 않아서 이 서버에서는 계속 주문할 수 없다.
+            bucketCounts.remove(itemId);
+            return false;
+        }
+        int total = item.getStockQuantity() + buckets.stream().mapToInt(StockBucket::getQuantity).sum();
+        if (total < count) {
+            return false;
+        }
+        int[] quantities = distribute(total - count, buckets.size());
+        for (int i = 0; i < buckets.size(); i++) {
+            buckets.get(i).changeQuantity(quantities[i]);
+        }
+        item.setStockQuantity(0);
+        //이후 같은 트랜잭션의 조건부 UPDATE가 바뀐 값을 보도록 바로 반영한다.
+        em.flush();
+        Metrics.counter("jpashop.stock.rebalance").increment();
+        return true;
+    }
+
+    /**
+     * 다른 서버에서 분산 모드로 바꾼 상품인지 DB에서 다시 확인한다. (일반 차감이 실패했을 때만 호출)
+     */
+    public boolean refresh(Long itemId) {
+        int buckets = (int) stockBucketRepository.countBuckets(itemId);
+        if (buckets == 0) {
+            bucketCounts.remove(itemId);
+            return false;
+        }
+        bucketCounts.put(itemId, buckets);
+        return true;
+    }
+
+    /**
+     * 전체 재고 = item.stock_quantity + 버킷 합계
+     */
+    @Transactional(readOnly = true)
+    public int available(Long itemId) {
+        Item item = em.find(Item.class, itemId);
+        long buckets = stockBucketRepository.sumQuantities(List.of(itemId)).getOrDefault(itemId, 0L);
+        return (int) (item.getStockQuantity() + buckets);
+    }
+
+    //목록 화면용. 분산 모드인 상품의 버킷 합계만 쿼리 한 번으로 가져온다.
+    @Transactional(readOnly = true)
+    public Map<Long, Long> bucketTotals(Collection<Long> itemIds) {
+        List<Long> sharded = itemIds.stream().filter(this::isSharded).toList();
+        if (sharded.isEmpty()) {
+            return Map.of();
+        }
+        return stockBucketRepository.sumQuantities(sharded);
+    }
+
+    /**
+     * 관리자가 재고 수량을 직접 바꾼 경우(상품 수정) 버킷에 새 수량을 고르게 나눈다.
+     */
+    public void reset(Long itemId, int stockQuantity) {
+        Item item = lockItem(itemId);
+        List<StockBucket> buckets = stockBucketRepository.findAllForUpdate(itemId);
+        if (buckets.isEmpty()) {
+            item.setStockQuantity(stockQuantity);
+            return;
+        }
+        int[] quantities = distribute(stockQuantity, buckets.size());
+        for (int i = 0; i < buckets.size(); i++) {
+            buckets.get(i).changeQuantity(quantities[i]);
+        }
+        item.setStockQuantity(0);
+    }
+
+    private Item lockItem(Long itemId) {
+        Item item = em.find(Item.class, itemId, LockModeType.PESSIMISTIC_WRITE);
+        if (item == null) {
+            throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId=" + itemId);
+        }
+        return item;
+    }
+
+    //total을 n개로 최대한 고르게 나눈다. (앞쪽 버킷부터 나머지를 1씩 더 준다.)
+    private static int[] distribute(int total, int n) {
+        int[] quantities = new int[n];
+        for (int i = 0; i < n; i++) {
+            quantities[i] = total / n + (i < total % n ? 1 : 0);
+        }
+        return quantities;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
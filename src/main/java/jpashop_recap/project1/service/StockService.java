@@ -0,0 +1,73 @@
+package jpashop_recap.project1.service;
+
+import jpashop_recap.project1.exception.NotEnoughStockException;
+import jpashop_recap.project1.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 1) 재고 예약(차감)  2) 재고 복구
+ * Item 엔티티를 읽어서 값을 바꾸는 방식(read-modify-write)은 같은 상품에 동시에 주문이 몰리면 갱신을 잃어버린다.
+ * 그래서 DB에서 조건부 UPDATE로 한 번에 차감하고, 변경된 row가 없으면 재고 부족으로 판단한다.
+ * 주문이 몰리는 상품은 분산 재고 모드(StockBucketService)로 바꿔서 UPDATE를 여러 row로 나눌 수 있다.
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class StockService {
+
+    private final ItemRepository itemRepository;
+    private final StockBucketService stockBucketService;
+
+    /**
+     * 기능1 - 재고 예약
+     * 엔티티를 로딩하지 않고 재고를 줄이며, 재고가 부족하면 NotEnoughStockException이 발생한다.
+     * 수량이 0 이하이면 IllegalArgumentException이 발생한다. (음수를 차감하면 재고가 늘어난다.)
+     */
+    public void reserve(Long itemId, int count) {
+        if (!tryReserve(itemId, count)) {
+            throw new NotEnoughStockException("재고가 부족합니다.");
+        }
+    }
+
+    /**
+     * 재고 예약 (예외 없음). 대량 주문처럼 실패를 주문 단위로 기록하고 트랜잭션은 계속 진행해야 할 때 사용한다.
+     * 분산 재고 모드인 상품은 버킷에서, 아니면 item row에서 차감한다.
+     * @return 차감 성공 여부
+     */
+    public boolean tryReserve(Long itemId, int count) {
+        validateCount(count);
+        if (stockBucketService.isSharded(itemId)) {
+            if (stockBucketService.tryRemove(itemId, count)) {
+                return true;
+            }
+            if (stockBucketService.isSharded(itemId)) {
+                return false;
+            }
+        }
+        if (itemRepository.removeStock(itemId, count) > 0) {
+            return true;
+        }
+        //다른 서버에서 분산 재고 모드로 바꾼 상품일 수 있으므로, 실패했을 때만 버킷을 확인한다.
+        return stockBucketService.refresh(itemId) && stockBucketService.tryRemove(itemId, count);
+    }
+
+    /**
+     * 기능2 - 재고 복구 (주문 취소)
+     */
+    public void release(Long itemId, int count) {
+        validateCount(count);
+        if (stockBucketService.isSharded(itemId) && stockBucketService.add(itemId, count)) {
+            return;
+        }
+        //분산 모드가 아니거나 버킷이 없으면 item row에 더한다. (분산 모드라면 다음 재분배 때 버킷으로 옮겨진다.)
+        itemRepository.addStock(itemId, count);
+    }
+
+    private static void validateCount(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("수량은 1개 이상이어야 합니다. count=" + count);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package jpashop_recap.project1.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 대량 취소 결과 - 주문별로 취소 여부와 취소하지 못한 이유를 담는다.
+ */
+@Getter
+@AllArgsConstructor
+public class BulkCancelResult {
+
+    public enum Outcome {
+        CANCELED,           //취소 완료
+        NOT_FOUND,          //없는 주문
+        ALREADY_CANCELED,   //이미 취소된 주문
+        DELIVERED           //배송완료라 취소 불가
+    }
+
+    private Long orderId;
+    private Outcome outcome;
+
+    public boolean isSuccess() {
+        return outcome == Outcome.CANCELED;
+    }
+}
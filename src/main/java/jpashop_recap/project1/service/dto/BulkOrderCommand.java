@@ -0,0 +1,24 @@
+package jpashop_recap.project1.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 대량 주문 시 주문 하나에 해당하는 요청 (회원 1명 + 주문상품 여러 개)
+ */
+@Getter
+@AllArgsConstructor
+public class BulkOrderCommand {
+
+    private Long memberId;
+    private List<Line> lines;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Line {
+        private Long itemId;
+        private int count;
+    }
+}
@@ -0,0 +1,41 @@
+package jpashop_recap.project1.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 대량 주문 결과 - 요청 순서(index)별로 성공 시 orderId, 실패 시 error를 담는다.
+ */
+@Getter
+@AllArgsConstructor
+public class BulkOrderResult {
+
+    private int index;
+    private Long orderId;
+    private String error;
+
+    //실패 원인 예외 (비동기 주문 접수에서 호출자에게 그대로 전달하기 위함. 응답에는 포함하지 않는다.)
+    @JsonIgnore
+    private RuntimeException cause;
+
+    //주문 자체가 아니라 청크 트랜잭션이 실패해서 함께 롤백된 경우. 다시 시도하면 성공할 수 있다.
+    @JsonIgnore
+    private boolean chunkFailed;
+
+    public static BulkOrderResult success(int index, Long orderId) {
+        return new BulkOrderResult(index, orderId, null, null, false);
+    }
+
+    public static BulkOrderResult failure(int index, RuntimeException cause) {
+        return new BulkOrderResult(index, null, cause.getMessage(), cause, false);
+    }
+
+    public static BulkOrderResult chunkFailure(int index, RuntimeException cause) {
+        return new BulkOrderResult(index, null, cause.getMessage(), cause, true);
+    }
+
+    public boolean isSuccess() {
+        return orderId != null;
+    }
+}
@@ -0,0 +1,97 @@
+package jpashop_recap.project1.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jpashop_recap.project1.domain.*;
+import jpashop_recap.project1.domain.item.Book;
+import jpashop_recap.project1.repository.query.dto.OrderItemQueryDto;
+import jpashop_recap.project1.repository.query.dto.OrderQueryDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ApiDtoSerializers 출력이 기본(@Data getter 기반) 직렬화와 필드 이름, 순서, 값까지 같은지 확인한다.
+ * DTO에 필드를 추가하고 직렬화기에 빠뜨리면 여기서 실패한다.
+ */
+public class ApiDtoSerializersTest {
+
+    private final ObjectMapper plain = objectMapper();
+    private final ObjectMapper custom = objectMapper().registerModule(ApiDtoSerializers.module());
+
+    @Test
+    public void 주문_DTO() throws Exception {
+        Order order = createOrder();
+
+        assertSameJson(new OrderApiController.Result<>(List.of(new OrderApiController.OrderDto(order))));
+        assertSameJson(new OrderApiController.OrderItemDto(order.getOrderItems().get(0)));
+    }
+
+    @Test
+    public void 간단한_주문_DTO() throws Exception {
+        Order order = createOrder();
+
+        assertSameJson(new OrderSimpleApiController.Result<>(List.of(
+                new OrderSimpleApiController.SimpleOrderDto(order),
+                new OrderSimpleApiController.SimpleOrderDto(OrderSummary.from(order)))));
+    }
+
+    @Test
+    public void 주문_조회_DTO() throws Exception {
+        OrderQueryDto withItems = new OrderQueryDto(1L, "userA", LocalDateTime.of(2024, 1, 2, 3, 4, 5, 6_000_000),
+                OrderStatus.ORDER, new Address("서울", "1", "1111"));
+        withItems.setOrderItems(List.of(
+                new OrderItemQueryDto(1L, "JPA1 BOOK", 10000, 1),
+                new OrderItemQueryDto(1L, "JPA2 BOOK", 20000, 2)));
+        //값이 비어있는 경우(null)도 같아야 한다.
+        OrderQueryDto empty = new OrderQueryDto(null, null, null, null, null);
+
+        assertSameJson(new OrderApiController.Result<>(List.of(withItems, empty)));
+    }
+
+    @Test
+    public void 회원_DTO() throws Exception {
+        assertSameJson(new MemberApiController.Result<>(List.of(new MemberApiController.MemberDto("userA"))));
+    }
+
+    private void assertSameJson(Object value) throws Exception {
+        assertEquals(plain.writeValueAsString(value), custom.writeValueAsString(value));
+    }
+
+    //스프링 부트 기본 설정처럼 날짜를 ISO 문자열로 쓴다.
+    private static ObjectMapper objectMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static Order createOrder() {
+        Member member = new Member();
+        member.setId(1L);
+        member.setName("userA");
+        member.setAddress(new Address("서울", "1", "1111"));
+
+        Book book1 = new Book();
+        book1.setName("JPA1 BOOK");
+        book1.setPrice(10000);
+        book1.setStockQuantity(100);
+        Book book2 = new Book();
+        book2.setName("JPA2 BOOK");
+        book2.setPrice(20000);
+        book2.setStockQuantity(100);
+
+        Delivery delivery = new Delivery();
+        delivery.setAddress(new Address("부산", "2", "2222"));
+        delivery.setStatus(DeliveryStatus.READY);
+
+        Order order = Order.createOrder(member, delivery,
+                OrderItem.createOrderItem(book1, 10000, 1),
+                OrderItem.createOrderItem(book2, 20000, 2));
+        order.setId(1L);
+        return order;
+    }
+}
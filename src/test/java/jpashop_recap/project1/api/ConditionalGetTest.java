@@ -0,0 +1,62 @@
+package jpashop_recap.project1.api;
+
+import jpashop_recap.project1.domain.Member;
+import jpashop_recap.project1.monitoring.SqlStatsInterceptor;
+import jpashop_recap.project1.service.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETag / If-None-Match 조건부 조회 테스트
+ * 회원가입이 커밋된 뒤에 버전이 올라가야 하므로 테스트 트랜잭션(@Transactional)을 쓰지 않는다.
+ */
+@SpringBootTest(properties = {"jpashop.sql-monitor.debug-header=true", "jpashop.etag.single-node=true"})
+@AutoConfigureMockMvc
+public class ConditionalGetTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired MemberService memberService;
+
+    @Test
+    public void 변경이_없으면_304() throws Exception {
+        //given
+        String etag = mockMvc.perform(get("/api/v2/members"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        //when
+        String statements = mockMvc.perform(get("/api/v2/members").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andReturn().getResponse().getHeader(SqlStatsInterceptor.STATEMENTS_HEADER);
+
+        //then
+        assertEquals("0", statements, "304 응답은 쿼리를 실행하지 않아야 한다.");
+    }
+
+    @Test
+    public void 회원이_바뀌면_새_ETag() throws Exception {
+        //given
+        String membersEtag = mockMvc.perform(get("/api/v2/members")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String ordersEtag = mockMvc.perform(get("/api/v5/orders")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when
+        Member member = new Member();
+        member.setName("etag-member-" + System.nanoTime());
+        memberService.join(member);
+
+        //then
+        mockMvc.perform(get("/api/v2/members").header(HttpHeaders.IF_NONE_MATCH, membersEtag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v5/orders").header(HttpHeaders.IF_NONE_MATCH, ordersEtag))
+                .andExpect(status().isOk());
+    }
+}
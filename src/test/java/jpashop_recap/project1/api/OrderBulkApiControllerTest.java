@@ -0,0 +1,52 @@
+package jpashop_recap.project1.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class OrderBulkApiControllerTest {
+
+    @Autowired MockMvc mockMvc;
+
+    @Test
+    public void 조건_없는_대량_취소는_400() throws Exception {
+        for (String body : new String[]{"{}", "{\"orderIds\": null}", "{\"orderIds\": [], \"memberName\": \" \"}"}) {
+            mockMvc.perform(post("/api/v1/orders/bulk-cancel").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    public void 최대_개수를_넘는_대량_주문은_400() throws Exception {
+        String orders = IntStream.rangeClosed(1, OrderBulkApiController.MAX_BULK_SIZE + 1)
+                .mapToObj(i -> "{\"memberId\": 1, \"lines\": [{\"itemId\": 1, \"count\": 1}]}")
+                .collect(Collectors.joining(","));
+        mockMvc.perform(post("/api/v1/orders/bulk").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orders\": [" + orders + "]}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/orders/bulk").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 최대_개수를_넘는_대량_취소는_400() throws Exception {
+        String orderIds = LongStream.rangeClosed(1, OrderBulkApiController.MAX_BULK_SIZE + 1)
+                .mapToObj(Long::toString)
+                .collect(Collectors.joining(","));
+        mockMvc.perform(post("/api/v1/orders/bulk-cancel").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orderIds\": [" + orderIds + "]}"))
+                .andExpect(status().isBadRequest());
+    }
+}
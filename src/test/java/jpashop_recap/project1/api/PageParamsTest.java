@@ -0,0 +1,79 @@
+package jpashop_recap.project1.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 목록 API에 잘못된 limit/커서를 넘기면 500이 아니라 400으로 응답해야 한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class PageParamsTest {
+
+    @Autowired MockMvc mockMvc;
+
+    @Test
+    public void 주문_목록() throws Exception {
+        assertBadRequest(
+                "/api/v3.1/orders?limit=0",
+                "/api/v3.1/orders?limit=" + (PageParams.MAX_LIMIT + 1),
+                "/api/v3.1/orders?offset=-1",
+                "/api/v3.2/orders?limit=0",
+                "/api/v3.2/orders?limit=-1",
+                "/api/v3.2/orders?cursor=!!!",
+                "/api/v3.2/orders?cursor=YWJj");    //Base64("abc") - 숫자가 아님
+        mockMvc.perform(get("/api/v3.2/orders?limit=" + PageParams.MAX_LIMIT)).andExpect(status().isOk());
+    }
+
+    @Test
+    public void 주문_요약_목록() throws Exception {
+        assertBadRequest(
+                "/api/v5/simple-orders?limit=0",
+                "/api/v5/simple-orders?limit=" + (PageParams.MAX_LIMIT + 1));
+    }
+
+    @Test
+    public void 회원별_매출() throws Exception {
+        assertBadRequest(
+                "/api/v1/revenue/members?limit=-1",
+                "/api/v1/revenue/members?limit=" + (PageParams.MAX_LIMIT + 1));
+    }
+
+    @Test
+    public void 상품_판매_순위() throws Exception {
+        assertBadRequest(
+                "/api/v1/sales/items/top?limit=0",
+                "/api/v1/sales/items/top?limit=" + (PageParams.MAX_LIMIT + 1));
+    }
+
+    @Test
+    public void 회원_목록() throws Exception {
+        assertBadRequest(
+                "/api/v3/members?limit=0",
+                "/api/v3/members?limit=-1",
+                "/api/v3/members?limit=" + (PageParams.MAX_LIMIT + 1));
+    }
+
+    @Test
+    public void 상품_목록() throws Exception {
+        assertBadRequest(
+                "/api/v1/items?limit=0",
+                "/api/v1/items?limit=" + (PageParams.MAX_LIMIT + 1),
+                "/api/v1/items?cursor=!!!",
+                "/api/v1/items?cursor=YWJj",            //Base64("abc") - ':' 없음
+                "/api/v1/items/page?size=0",
+                "/api/v1/items/page?size=" + Integer.MAX_VALUE);
+    }
+
+    private void assertBadRequest(String... urls) throws Exception {
+        for (String url : urls) {
+            mockMvc.perform(get(url)).andExpect(status().isBadRequest());
+        }
+    }
+}
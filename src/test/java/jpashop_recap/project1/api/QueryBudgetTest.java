@@ -0,0 +1,160 @@
+package jpashop_recap.project1.api;
+
+import jakarta.persistence.EntityManager;
+import jpashop_recap.project1.domain.*;
+import jpashop_recap.project1.domain.item.Book;
+import jpashop_recap.project1.monitoring.SqlStatsInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 주문 조회 API별 SQL 수 예산(budget) 테스트
+ * 주문 수를 10, 100, 1000건으로 늘려도 SQL 수가 예산 안에 있어야 한다.
+ * OrderRepository/OrderQueryRepository를 고치다가 지연 로딩 N+1이 다시 생기면 여기서 실패한다.
+ * SQL 수는 SqlStatsInterceptor가 붙이는 X-Sql-Statements 헤더로 확인한다. (회원/상품 2차 캐시 hit는 SQL이 0이므로 예산은 상한이다.)
+ * - IN 절 분할 조회(v5.1)는 작업 스레드의 별도 트랜잭션에서 읽으므로 데이터를 실제로 커밋하고, 끝나면 지운다.
+ * - 분할 경로를 타도록 청크 크기를 작게 두고, 예산은 청크 수/batch fetch 횟수로 표현한다. (주문 수에 비례하지 않음)
+ */
+@SpringBootTest(properties = {
+        "jpashop.sql-monitor.debug-header=true",
+        "jpashop.query.in-chunk-size=" + QueryBudgetTest.IN_CHUNK_SIZE,
+        "spring.jpa.properties.hibernate.default_batch_fetch_size=" + QueryBudgetTest.BATCH_SIZE})
+@AutoConfigureMockMvc
+public class QueryBudgetTest {
+
+    static final int IN_CHUNK_SIZE = 100;
+    static final int BATCH_SIZE = 1000;
+    private static final int PAGE_LIMIT = 1000;
+    private static final int ITEMS_PER_ORDER = 2;
+
+    @Autowired MockMvc mockMvc;
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    private final List<Long> orderIds = new ArrayList<>();
+    private final List<Long> deliveryIds = new ArrayList<>();
+    private final List<Long> memberIds = new ArrayList<>();
+    private final List<Long> itemIds = new ArrayList<>();
+
+    /**
+     * 엔드포인트별 (SQL 예산, 응답 최대 row 수). 예산은 응답 row 수 n의 함수다.
+     * v4는 설계상 주문마다 컬렉션을 따로 조회하므로(1 + N) 주문 수에 비례한다. 나머지는 데이터 크기와 무관해야 한다.
+     */
+    static Stream<Arguments> budgets() {
+        return Stream.of(
+                budget("/api/v2/orders", n -> 1 + 3 * batches(n), PAGE_LIMIT),    //주문 + (회원, 주문상품, 상품) batch fetch
+                budget("/api/v3/orders", n -> 1, Integer.MAX_VALUE),              //컬렉션 fetch join
+                budget("/api/v3.1/orders?limit=" + PAGE_LIMIT, n -> 1 + 2 * batches(n), PAGE_LIMIT),   //ToOne fetch join + (주문상품, 상품)
+                budget("/api/v3.2/orders?limit=" + PAGE_LIMIT, n -> 1 + 2 * batches(n), PAGE_LIMIT),
+                budget("/api/v4/orders", n -> 1 + n, Integer.MAX_VALUE),
+                budget("/api/v5/orders", n -> 2, Integer.MAX_VALUE),
+                budget("/api/v5.1/orders", n -> 1 + chunks(n), Integer.MAX_VALUE),   //주문 + IN 절 청크마다 1
+                budget("/api/v2/simple-orders", n -> 1 + 2 * batches(n), PAGE_LIMIT),  //주문 + (회원, 배송) batch fetch
+                budget("/api/v3/simple-orders", n -> 1, Integer.MAX_VALUE),
+                budget("/api/v5/simple-orders?limit=" + PAGE_LIMIT, n -> 1, PAGE_LIMIT)   //order_summary 단일 테이블
+        ).flatMap(b -> IntStream.of(10, 100, 1000)
+                .mapToObj(orders -> Arguments.of(b.get()[0], b.get()[1], b.get()[2], orders)));
+    }
+
+    @ParameterizedTest(name = "{0} orders={3}")
+    @MethodSource("budgets")
+    public void SQL_수_예산(String url, IntUnaryOperator budgetOf, int maxRows, int orders) throws Exception {
+        //given
+        int totalOrders = seed(orders);
+        int rows = Math.min(totalOrders, maxRows);
+
+        //when
+        MvcResult result = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(rows))
+                .andReturn();
+
+        //then
+        int statements = Integer.parseInt(result.getResponse().getHeader(SqlStatsInterceptor.STATEMENTS_HEADER));
+        int budget = budgetOf.applyAsInt(rows);
+        assertTrue(statements <= budget,
+                url + " SQL 수 예산 초과: statements=" + statements + ", budget=" + budget + ", orders=" + totalOrders);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from OrderSummary s where s.orderId in :ids").setParameter("ids", orderIds).executeUpdate();
+            em.createQuery("delete from OrderItem oi where oi.order.id in :ids").setParameter("ids", orderIds).executeUpdate();
+            em.createQuery("delete from Order o where o.id in :ids").setParameter("ids", orderIds).executeUpdate();
+            em.createQuery("delete from Delivery d where d.id in :ids").setParameter("ids", deliveryIds).executeUpdate();
+            em.createQuery("delete from Member m where m.id in :ids").setParameter("ids", memberIds).executeUpdate();
+            em.createQuery("delete from Item i where i.id in :ids").setParameter("ids", itemIds).executeUpdate();
+        });
+    }
+
+    private static Arguments budget(String url, IntUnaryOperator budgetOf, int maxRows) {
+        return Arguments.of(url, budgetOf, maxRows);
+    }
+
+    private static int batches(int rows) {
+        return (rows + BATCH_SIZE - 1) / BATCH_SIZE;
+    }
+
+    private static int chunks(int rows) {
+        return (rows + IN_CHUNK_SIZE - 1) / IN_CHUNK_SIZE;
+    }
+
+    //주문과 주문 요약을 넣고 커밋한다. 전체 주문 수(InitDb 포함)를 돌려준다.
+    private int seed(int orders) {
+        return transactionTemplate.execute(status -> {
+            Book[] books = new Book[ITEMS_PER_ORDER];
+            for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                books[i] = new Book();
+                books[i].setName("BUDGET BOOK " + i);
+                books[i].setPrice(10000);
+                books[i].setStockQuantity(Integer.MAX_VALUE);
+                em.persist(books[i]);
+                itemIds.add(books[i].getId());
+            }
+
+            for (int i = 0; i < orders; i++) {
+                Member member = new Member();
+                member.setName("budget-member-" + i);
+                member.setAddress(new Address("서울", String.valueOf(i), "1111"));
+                em.persist(member);
+                memberIds.add(member.getId());
+
+                Delivery delivery = new Delivery();
+                delivery.setAddress(member.getAddress());
+                delivery.setStatus(DeliveryStatus.READY);
+
+                OrderItem[] orderItems = Stream.of(books)
+                        .map(b -> OrderItem.createOrderItem(b, b.getPrice(), 1))
+                        .toArray(OrderItem[]::new);
+                Order order = Order.createOrder(member, delivery, orderItems);
+                em.persist(order);
+                em.persist(OrderSummary.from(order));
+                orderIds.add(order.getId());
+                deliveryIds.add(delivery.getId());
+            }
+
+            em.flush();
+            return em.createQuery("select count(o) from Order o", Long.class).getSingleResult().intValue();
+        });
+    }
+}
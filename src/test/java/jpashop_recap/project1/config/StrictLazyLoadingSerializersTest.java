@@ -0,0 +1,57 @@
+package jpashop_recap.project1.config;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jpashop_recap.project1.domain.Member;
+import jpashop_recap.project1.domain.Order;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 엄격 모드(jpashop.jackson.strict-lazy-loading=true)에서 초기화되지 않은 프록시/컬렉션을 직렬화하면
+ * 쿼리를 날리지 않고 예외가 발생해야 한다. (InitDb 데이터 사용)
+ */
+@SpringBootTest(properties = "jpashop.jackson.strict-lazy-loading=true")
+@Transactional
+public class StrictLazyLoadingSerializersTest {
+
+    @Autowired ObjectMapper objectMapper;
+    @Autowired EntityManager em;
+
+    @Test
+    public void 초기화되지_않은_프록시는_예외() throws Exception {
+        //given
+        Long memberId = em.createQuery("select m.id from Member m", Long.class)
+                .setMaxResults(1)
+                .getSingleResult();
+        em.clear();
+        Member proxy = em.getReference(Member.class, memberId);
+        assertFalse(Hibernate.isInitialized(proxy));
+
+        //when, then
+        JsonMappingException e = assertThrows(JsonMappingException.class, () -> objectMapper.writeValueAsString(proxy));
+        assertTrue(e.getMessage().contains("초기화되지 않은 프록시"));
+        assertFalse(Hibernate.isInitialized(proxy), "직렬화 중에 지연 로딩이 일어나면 안 된다.");
+    }
+
+    @Test
+    public void 초기화되지_않은_컬렉션은_예외() throws Exception {
+        //given
+        Long orderId = em.createQuery("select o.id from Order o", Long.class)
+                .setMaxResults(1)
+                .getSingleResult();
+        em.clear();
+        Order order = em.find(Order.class, orderId);
+        assertFalse(Hibernate.isInitialized(order.getOrderItems()));
+
+        //when, then
+        assertThrows(JsonMappingException.class, () -> objectMapper.writeValueAsString(order.getOrderItems()));
+        assertFalse(Hibernate.isInitialized(order.getOrderItems()));
+    }
+}
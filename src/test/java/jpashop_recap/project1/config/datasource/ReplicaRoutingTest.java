@@ -0,0 +1,115 @@
+package jpashop_recap.project1.config.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 로컬 H2 메모리 DB 두 개를 primary, replica로 두고 라우팅을 확인한다.
+ * 복제는 없으므로 두 DB에 같은 테이블을 만들고 다른 값을 넣어서, 어느 쪽에서 읽었는지 값으로 구분한다.
+ * 상태 확인은 테스트에서 직접 호출하도록 주기를 길게 둔다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingTest.PRIMARY_URL,
+        "spring.jpa.open-in-view=false",
+        "jpashop.datasource.routing.enabled=true",
+        "jpashop.datasource.routing.lag-check=true",
+        "jpashop.datasource.routing.max-lag-millis=1000",
+        "jpashop.datasource.routing.check-interval-millis=3600000",
+        "jpashop.datasource.routing.replicas[0].url=" + ReplicaRoutingTest.REPLICA_URL,
+        "jpashop.datasource.routing.replicas[0].username=sa",
+        "jpashop.datasource.routing.replicas[0].password="})
+public class ReplicaRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired ReplicaRoutingConfig replicaRoutingConfig;
+    @Autowired DataSource dataSource;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MeterRegistry meterRegistry;
+
+    private final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    public void setUp() {
+        for (JdbcTemplate template : new JdbcTemplate[]{primary, replica}) {
+            template.execute("create table if not exists routing_probe (target varchar(20))");
+            template.update("delete from routing_probe");
+        }
+        primary.update("insert into routing_probe (target) values ('primary')");
+        replica.update("insert into routing_probe (target) values ('replica')");
+        replica.execute("create table if not exists replication_heartbeat (id int primary key, beat_at timestamp)");
+    }
+
+    @Test
+    public void 읽기_전용_트랜잭션은_replica로() throws Exception {
+        //given
+        replicateHeartbeat(System.currentTimeMillis());
+        replicaRoutingConfig.checkReplicas();
+
+        //when, then
+        assertEquals("replica", readTarget(true));
+        assertEquals("primary", readTarget(false));
+        assertTrue(meterRegistry.get("jpashop.datasource.route").tag("target", "replica-0").counter().count() > 0);
+
+        //커넥션 풀 메트릭은 풀마다 pool 태그로 나뉜다.
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", ReplicaRoutingDataSource.PRIMARY).gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "replica-0").gauge());
+    }
+
+    @Test
+    public void 복제_지연이_크면_primary로() throws Exception {
+        //given - replica에 도착한 마지막 heartbeat가 1시간 전
+        replicateHeartbeat(System.currentTimeMillis() - 3_600_000);
+        replicaRoutingConfig.checkReplicas();
+
+        //when, then
+        assertEquals("primary", readTarget(true));
+
+        //지연이 풀리면 다시 replica를 사용한다.
+        replicateHeartbeat(System.currentTimeMillis());
+        replicaRoutingConfig.checkReplicas();
+        assertEquals("replica", readTarget(true));
+    }
+
+    @Test
+    public void OSIV를_켜면_기동_실패() throws Exception {
+        new ApplicationContextRunner()
+                .withUserConfiguration(ReplicaRoutingConfig.class)
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withPropertyValues("jpashop.datasource.routing.enabled=true")
+                .run(context -> {
+                    assertNotNull(context.getStartupFailure());
+                    assertInstanceOf(IllegalStateException.class,
+                            NestedExceptionUtils.getMostSpecificCause(context.getStartupFailure()));
+                });
+    }
+
+    //primary의 heartbeat가 replica에 복제되어 도착한 것처럼 replica에 직접 기록한다.
+    private void replicateHeartbeat(long beatAtMillis) {
+        replica.update("merge into replication_heartbeat key (id) values (1, ?)", new Timestamp(beatAtMillis));
+    }
+
+    private String readTarget(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("select target from routing_probe", String.class));
+    }
+}
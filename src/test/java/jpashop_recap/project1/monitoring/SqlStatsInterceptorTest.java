@@ -0,0 +1,73 @@
+package jpashop_recap.project1.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 요청별 SQL 메트릭과 N+1 감지 테스트
+ * InitDb 주문 2건 기준으로 v4(주문마다 주문상품을 따로 조회)는 같은 SQL이 2번 반복되고, v3(fetch join)는 반복이 없다.
+ * 반복 기준을 1로 낮춰서 v4만 N+1로 잡히는지 확인한다.
+ */
+@SpringBootTest(properties = "jpashop.sql-monitor.repeat-threshold=1")
+@AutoConfigureMockMvc
+public class SqlStatsInterceptorTest {
+
+    private static final String V3 = "OrderApiController.ordersV3";
+    private static final String V4 = "OrderApiController.ordersV4";
+
+    @Autowired MockMvc mockMvc;
+    @Autowired MeterRegistry meterRegistry;
+
+    @Test
+    public void 핸들러별_메트릭() throws Exception {
+        //given
+        long before = statementsSummary(V3).count();
+
+        //when
+        mockMvc.perform(get("/api/v3/orders"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(SqlStatsInterceptor.STATEMENTS_HEADER));   //디버그 헤더는 기본값이 꺼짐
+
+        //then
+        DistributionSummary statements = statementsSummary(V3);
+        assertEquals(before + 1, statements.count());
+        assertTrue(statements.totalAmount() > 0);
+        assertNotNull(meterRegistry.find("jpashop.sql.rows").tag("handler", V3).summary());
+        assertNotNull(meterRegistry.find("jpashop.sql.time").tag("handler", V3).timer());
+    }
+
+    @Test
+    public void 같은_SQL이_반복되면_N플러스1_기록() throws Exception {
+        //given
+        double v3Before = nPlusOne(V3);
+        double v4Before = nPlusOne(V4);
+
+        //when
+        mockMvc.perform(get("/api/v3/orders")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v4/orders")).andExpect(status().isOk());
+
+        //then
+        assertEquals(v3Before, nPlusOne(V3), "fetch join 조회는 N+1로 기록되지 않아야 한다.");
+        assertEquals(v4Before + 1, nPlusOne(V4), "주문마다 주문상품을 조회하면 N+1로 기록되어야 한다.");
+    }
+
+    private DistributionSummary statementsSummary(String handler) {
+        return DistributionSummary.builder("jpashop.sql.statements").tag("handler", handler).register(meterRegistry);
+    }
+
+    private double nPlusOne(String handler) {
+        Counter counter = meterRegistry.find("jpashop.sql.n_plus_one").tag("handler", handler).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
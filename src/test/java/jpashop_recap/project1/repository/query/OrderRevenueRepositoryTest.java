@@ -0,0 +1,90 @@
+package jpashop_recap.project1.repository.query;
+
+import jakarta.persistence.EntityManager;
+import jpashop_recap.project1.domain.*;
+import jpashop_recap.project1.domain.item.Book;
+import jpashop_recap.project1.repository.query.dto.RevenueByDayDto;
+import jpashop_recap.project1.repository.query.dto.RevenueByMemberDto;
+import jpashop_recap.project1.repository.query.dto.RevenueByStatusDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+public class OrderRevenueRepositoryTest {
+
+    private static final int PRICE = 2_000_000_000;
+
+    @Autowired EntityManager em;
+    @Autowired OrderRevenueRepository orderRevenueRepository;
+
+    @Test
+    public void 주문금액_합계는_int를_넘어도_정확하다() {
+        //given
+        Member member = createMember();
+        Order order = createOrder(member, 3);
+
+        //then
+        assertEquals(3L * PRICE, order.getTotalPrice());
+    }
+
+    @Test
+    public void 매출_집계() {
+        //given
+        Member member = createMember();
+        createOrder(member, 2);
+        createOrder(member, 1).cancel();
+        em.flush();
+        em.clear();
+
+        LocalDate today = LocalDate.now();
+
+        //when
+        List<RevenueByStatusDto> byStatus = orderRevenueRepository.findRevenueByStatus();
+        List<RevenueByDayDto> byDay = orderRevenueRepository.findRevenueByDay(today, today.plusDays(1), OrderStatus.ORDER);
+        List<RevenueByMemberDto> byMember = orderRevenueRepository.findRevenueByMember(today, today.plusDays(1), OrderStatus.ORDER, 1000);
+
+        //then
+        assertTrue(byStatus.stream().anyMatch(r -> r.getStatus() == OrderStatus.CANCEL && r.getRevenue() >= PRICE));
+        assertEquals(1, byDay.size());
+        assertEquals(today, byDay.get(0).getDay());
+        assertTrue(byDay.get(0).getRevenue() >= 2L * PRICE);
+
+        RevenueByMemberDto memberRevenue = byMember.stream()
+                .filter(r -> r.getMemberId().equals(member.getId()))
+                .findFirst().orElseThrow();
+        assertEquals(1, memberRevenue.getOrders());
+        assertEquals(2L * PRICE, memberRevenue.getRevenue(), "취소된 주문은 ORDER 매출에서 빠져야 한다.");
+    }
+
+    private Member createMember() {
+        Member member = new Member();
+        member.setName("revenue-member-" + System.nanoTime());
+        member.setAddress(new Address("서울", "1", "1111"));
+        em.persist(member);
+        return member;
+    }
+
+    private Order createOrder(Member member, int count) {
+        Book book = new Book();
+        book.setName("REVENUE BOOK");
+        book.setPrice(PRICE);
+        book.setStockQuantity(count);
+        em.persist(book);
+
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        delivery.setStatus(DeliveryStatus.READY);
+
+        Order order = Order.createOrder(member, delivery, OrderItem.createOrderItem(book, book.getPrice(), count));
+        em.persist(order);
+        return order;
+    }
+}
@@ -0,0 +1,156 @@
+package jpashop_recap.project1.service;
+
+import jakarta.persistence.EntityManager;
+import jpashop_recap.project1.domain.*;
+import jpashop_recap.project1.domain.item.Book;
+import jpashop_recap.project1.domain.item.Item;
+import jpashop_recap.project1.repository.query.dto.ItemSalesDto;
+import jpashop_recap.project1.service.dto.BulkCancelResult;
+import jpashop_recap.project1.service.dto.BulkCancelResult.Outcome;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 대량 취소는 청크마다 트랜잭션을 커밋하므로 테스트 트랜잭션(@Transactional) 없이 실행한다.
+ */
+@SpringBootTest
+public class BulkCancelServiceTest {
+
+    private static final int STOCK = 100;
+
+    @Autowired OrderService orderService;
+    @Autowired BulkCancelService bulkCancelService;
+    @Autowired SalesRollupService salesRollupService;
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    private Long memberId;
+    private String memberName;
+    private Long itemId;
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = new Member();
+            member.setName("cancel-" + System.nanoTime());
+            memberName = member.getName();
+            member.setAddress(new Address("서울", "1", "1111"));
+            em.persist(member);
+
+            Book book = new Book();
+            book.setName("CANCEL BOOK");
+            book.setPrice(10000);
+            book.setStockQuantity(STOCK);
+            em.persist(book);
+
+            memberId = member.getId();
+            itemId = book.getId();
+        });
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from ItemDailySales s where s.id.itemId = :id").setParameter("id", itemId).executeUpdate();
+            em.createQuery("delete from OrderSummary s where s.orderId in :ids").setParameter("ids", orderIds).executeUpdate();
+            em.createQuery("delete from OrderItem oi where oi.order.id in :ids").setParameter("ids", orderIds).executeUpdate();
+            List<Long> deliveryIds = em.createQuery("select o.delivery.id from Order o where o.id in :ids", Long.class)
+                    .setParameter("ids", orderIds)
+                    .getResultList();
+            em.createQuery("delete from Order o where o.id in :ids").setParameter("ids", orderIds).executeUpdate();
+            em.createQuery("delete from Delivery d where d.id in :ids").setParameter("ids", deliveryIds).executeUpdate();
+            em.createQuery("delete from Item i where i.id = :id").setParameter("id", itemId).executeUpdate();
+            em.createQuery("delete from Member m where m.id = :id").setParameter("id", memberId).executeUpdate();
+        });
+    }
+
+    @Test
+    public void 대량_취소() throws Exception {
+        //given - 주문 3건 (3개, 2개, 4개). 두 번째는 이미 취소, 세 번째는 배송완료
+        orderIds.add(orderService.order(memberId, itemId, 3));
+        orderIds.add(orderService.order(memberId, itemId, 2));
+        orderIds.add(orderService.order(memberId, itemId, 4));
+        orderService.cancelOrder(orderIds.get(1));
+        transactionTemplate.executeWithoutResult(status ->
+                em.find(Order.class, orderIds.get(2)).getDelivery().setStatus(DeliveryStatus.COMP));
+
+        //when - 없는 주문, 중복 id도 섞어서 요청
+        List<BulkCancelResult> results = bulkCancelService.cancel(
+                List.of(orderIds.get(0), orderIds.get(1), orderIds.get(2), -1L, orderIds.get(0)));
+
+        //then - 결과는 중복을 뺀 요청 순서대로
+        assertEquals(List.of(orderIds.get(0), orderIds.get(1), orderIds.get(2), -1L),
+                results.stream().map(BulkCancelResult::getOrderId).toList());
+        assertEquals(List.of(Outcome.CANCELED, Outcome.ALREADY_CANCELED, Outcome.DELIVERED, Outcome.NOT_FOUND),
+                results.stream().map(BulkCancelResult::getOutcome).toList());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertEquals(OrderStatus.CANCEL, em.find(Order.class, orderIds.get(0)).getStatus());
+            assertEquals(OrderStatus.ORDER, em.find(Order.class, orderIds.get(2)).getStatus());
+            assertEquals(OrderStatus.CANCEL, em.find(OrderSummary.class, orderIds.get(0)).getStatus());
+            assertEquals(STOCK - 4, em.find(Item.class, itemId).getStockQuantity(), "배송완료 주문의 재고만 빠져 있어야 한다.");
+        });
+
+        LocalDate today = LocalDate.now();
+        List<ItemSalesDto> rows = salesRollupService.findDaily(today, today.plusDays(1), itemId);
+        assertEquals(4, rows.get(0).getUnits(), "취소된 수량은 롤업에서 빠져야 한다.");
+    }
+
+    @Test
+    public void 검색_조건으로_대량_취소() throws Exception {
+        //given - 같은 회원의 주문 2건 (2개, 5개). 두 번째는 배송완료
+        orderIds.add(orderService.order(memberId, itemId, 2));
+        orderIds.add(orderService.order(memberId, itemId, 5));
+        transactionTemplate.executeWithoutResult(status ->
+                em.find(Order.class, orderIds.get(1)).getDelivery().setStatus(DeliveryStatus.COMP));
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName(memberName);
+
+        //when
+        List<BulkCancelResult> results = bulkCancelService.cancel(orderSearch, 100);
+
+        //then - 회원의 주문 상태 주문만 order_id 순으로 처리된다.
+        assertEquals(orderIds, results.stream().map(BulkCancelResult::getOrderId).toList());
+        assertEquals(List.of(Outcome.CANCELED, Outcome.DELIVERED),
+                results.stream().map(BulkCancelResult::getOutcome).toList());
+        transactionTemplate.executeWithoutResult(status ->
+                assertEquals(STOCK - 5, em.find(Item.class, itemId).getStockQuantity()));
+
+        //다시 실행하면 배송완료 주문만 남는다.
+        assertEquals(List.of(Outcome.DELIVERED),
+                bulkCancelService.cancel(orderSearch, 100).stream().map(BulkCancelResult::getOutcome).toList());
+    }
+
+    @Test
+    public void 회원명은_정확히_일치해야_취소된다() throws Exception {
+        //given
+        orderIds.add(orderService.order(memberId, itemId, 1));
+        orderIds.add(orderService.order(memberId, itemId, 1));
+
+        //when - LIKE 와일드카드와 이름 일부는 아무 주문도 찾지 않는다.
+        for (String pattern : new String[]{"%", "_%", memberName.substring(0, 6) + "%"}) {
+            OrderSearch orderSearch = new OrderSearch();
+            orderSearch.setMemberName(pattern);
+            assertEquals(0, bulkCancelService.countCancelable(orderSearch));
+            assertTrue(bulkCancelService.cancel(orderSearch, 100).isEmpty());
+        }
+
+        //then - 최대 건수까지만 취소한다.
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName(memberName);
+        assertEquals(2, bulkCancelService.countCancelable(orderSearch));
+        assertEquals(List.of(orderIds.get(0)),
+                bulkCancelService.cancel(orderSearch, 1).stream().map(BulkCancelResult::getOrderId).toList());
+    }
+}
@@ -0,0 +1,174 @@
+package jpashop_recap.project1.service;
+
+import jakarta.persistence.EntityManager;
+import jpashop_recap.project1.domain.Address;
+import jpashop_recap.project1.domain.Member;
+import jpashop_recap.project1.domain.item.Book;
+import jpashop_recap.project1.service.dto.BulkOrderCommand;
+import jpashop_recap.project1.service.dto.BulkOrderCommand.Line;
+import jpashop_recap.project1.service.dto.BulkOrderResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+
+/**
+ * 대량 주문은 청크마다 트랜잭션을 커밋하므로 테스트 트랜잭션(@Transactional) 없이 실행한다.
+ * 청크 경계를 넘나들도록 청크 크기를 2로 둔다.
+ */
+@SpringBootTest(properties = "jpashop.bulk-order.chunk-size=" + BulkOrderServiceTest.CHUNK_SIZE)
+public class BulkOrderServiceTest {
+
+    static final int CHUNK_SIZE = 2;
+    private static final Long UNKNOWN_ID = -1L;
+
+    @Autowired BulkOrderService bulkOrderService;
+    @Autowired StockBucketService stockBucketService;
+    @SpyBean SalesRollupService salesRollupService;
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    private Long memberId;
+    private Long bookA;     //재고 10
+    private Long bookB;     //재고 1
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = new Member();
+            member.setName("bulk-" + System.nanoTime());
+            member.setAddress(new Address("서울", "1", "1111"));
+            em.persist(member);
+            memberId = member.getId();
+            bookA = createBook("BULK BOOK A", 10);
+            bookB = createBook("BULK BOOK B", 1);
+        });
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> itemIds = List.of(bookA, bookB);
+            em.createQuery("delete from ItemDailySales s where s.id.itemId in :ids").setParameter("ids", itemIds).executeUpdate();
+            em.createQuery("delete from OrderSummary s where s.orderId in :ids").setParameter("ids", orderIds).executeUpdate();
+            em.createQuery("delete from OrderItem oi where oi.order.id in :ids").setParameter("ids", orderIds).executeUpdate();
+            List<Long> deliveryIds = em.createQuery("select o.delivery.id from Order o where o.id in :ids", Long.class)
+                    .setParameter("ids", orderIds)
+                    .getResultList();
+            em.createQuery("delete from Order o where o.id in :ids").setParameter("ids", orderIds).executeUpdate();
+            em.createQuery("delete from Delivery d where d.id in :ids").setParameter("ids", deliveryIds).executeUpdate();
+            em.createQuery("delete from Item i where i.id in :ids").setParameter("ids", itemIds).executeUpdate();
+            em.createQuery("delete from Member m where m.id = :id").setParameter("id", memberId).executeUpdate();
+        });
+    }
+
+    @Test
+    public void 청크_경계() throws Exception {
+        //given - 청크 3개 (2 + 2 + 1)
+        List<BulkOrderCommand> commands = IntStream.range(0, 5)
+                .mapToObj(i -> command(memberId, new Line(bookA, 1)))
+                .toList();
+
+        //when
+        List<BulkOrderResult> results = order(commands);
+
+        //then - 결과는 청크와 상관없이 요청 순서대로 하나씩 있다.
+        assertEquals(5, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+            assertTrue(results.get(i).isSuccess());
+        }
+        assertEquals(5, results.stream().map(BulkOrderResult::getOrderId).distinct().count());
+        assertEquals(5, stockBucketService.available(bookA));
+        assertEquals(5, countOrders());
+    }
+
+    @Test
+    public void 청크_안에서_일부_실패() throws Exception {
+        //given
+        List<BulkOrderCommand> commands = List.of(
+                command(memberId, new Line(bookA, 1)),                      //0: 성공
+                command(memberId, new Line(bookA, 2), new Line(bookB, 5)),  //1: B 재고 부족 -> 먼저 예약한 A 2개를 되돌린다.
+                command(UNKNOWN_ID, new Line(bookA, 1)),                    //2: 없는 회원
+                command(memberId, new Line(UNKNOWN_ID, 1)),                 //3: 없는 상품
+                command(memberId, new Line(bookA, 0)),                      //4: 수량 0
+                command(memberId, new Line(bookA, 1), new Line(bookB, 1))   //5: 성공
+        );
+
+        //when
+        List<BulkOrderResult> results = order(commands);
+
+        //then
+        assertEquals(List.of(true, false, false, false, false, true),
+                results.stream().map(BulkOrderResult::isSuccess).toList());
+        assertTrue(results.get(1).getError().contains("재고"));
+        assertTrue(results.get(2).getError().contains("회원"));
+        assertTrue(results.get(3).getError().contains("상품"));
+        assertNotNull(results.get(4).getError());
+
+        //실패한 주문이 예약한 재고는 남지 않는다.
+        assertEquals(10 - 1 - 1, stockBucketService.available(bookA));
+        assertEquals(0, stockBucketService.available(bookB));
+        assertEquals(2, countOrders());
+    }
+
+    @Test
+    public void 청크_트랜잭션이_실패해도_앞_청크_결과는_남는다() throws Exception {
+        //given - 청크 2개 (2 + 2). 두 번째 청크의 첫 주문에서 예외
+        doCallRealMethod().doCallRealMethod().doThrow(new IllegalStateException("rollup failed"))
+                .when(salesRollupService).onOrdered(any());
+        List<BulkOrderCommand> commands = IntStream.range(0, 4)
+                .mapToObj(i -> command(memberId, new Line(bookA, 1)))
+                .toList();
+
+        //when
+        List<BulkOrderResult> results = order(commands);
+
+        //then - 두 번째 청크만 실패로 기록되고, 롤백된 재고 예약은 남지 않는다.
+        assertEquals(List.of(0, 1, 2, 3), results.stream().map(BulkOrderResult::getIndex).toList());
+        assertEquals(List.of(true, true, false, false), results.stream().map(BulkOrderResult::isSuccess).toList());
+        assertEquals("rollup failed", results.get(2).getError());
+        assertEquals(10 - 2, stockBucketService.available(bookA));
+        assertEquals(2, countOrders());
+    }
+
+    private List<BulkOrderResult> order(List<BulkOrderCommand> commands) {
+        List<BulkOrderResult> results = bulkOrderService.order(commands);
+        results.stream()
+                .filter(BulkOrderResult::isSuccess)
+                .forEach(r -> orderIds.add(r.getOrderId()));
+        return results;
+    }
+
+    private long countOrders() {
+        return transactionTemplate.execute(status ->
+                em.createQuery("select count(o) from Order o where o.member.id = :id", Long.class)
+                        .setParameter("id", memberId)
+                        .getSingleResult());
+    }
+
+    private Long createBook(String name, int stock) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(stock);
+        em.persist(book);
+        return book.getId();
+    }
+
+    private static BulkOrderCommand command(Long memberId, Line... lines) {
+        return new BulkOrderCommand(memberId, List.of(lines));
+    }
+}
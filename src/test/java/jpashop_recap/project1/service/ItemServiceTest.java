@@ -0,0 +1,142 @@
+package jpashop_recap.project1.service;
+
+import jakarta.persistence.EntityManager;
+import jpashop_recap.project1.domain.ItemSearch;
+import jpashop_recap.project1.domain.item.Book;
+import jpashop_recap.project1.domain.item.Item;
+import jpashop_recap.project1.domain.item.Movie;
+import jpashop_recap.project1.repository.query.dto.ItemCatalogDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 상품 카탈로그 조회 테스트
+ * 저장 직후 2차 캐시에 들어간 상품도 확인해야 하므로 테스트 트랜잭션(@Transactional) 없이 커밋하고, 끝나면 지운다.
+ * 다른 상품과 섞이지 않도록 테스트마다 고유한 이름 접두어를 쓴다.
+ */
+@SpringBootTest
+public class ItemServiceTest {
+
+    @Autowired ItemService itemService;
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    private final String prefix = "CATALOG-" + System.nanoTime() + "-";
+    private final List<Long> itemIds = new ArrayList<>();
+
+    @AfterEach
+    public void cleanUp() {
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("delete from Item i where i.id in :ids").setParameter("ids", itemIds).executeUpdate());
+    }
+
+    @Test
+    public void 새로_저장한_상품의_종류() throws Exception {
+        //given
+        Book book = book("A");
+        itemService.saveItem(book);
+        itemIds.add(book.getId());
+
+        //when - 저장한 엔티티, 다른 트랜잭션에서 읽은 엔티티(2차 캐시)
+        Item found = transactionTemplate.execute(status -> em.find(Item.class, book.getId()));
+
+        //then
+        assertEquals("B", book.getDtype());
+        assertEquals("B", found.getDtype());
+    }
+
+    @Test
+    public void 같은_이름을_넘나드는_커서_페이징() throws Exception {
+        //given - 같은 이름 여러 개 + 다른 종류
+        save(book("a"), book("a"), book("a"), book("b"), movie("a"), book("c"), book("a"));
+        ItemSearch itemSearch = search(null);
+
+        //when - 2개씩 커서로 끝까지 읽는다.
+        List<ItemCatalogDto> read = new ArrayList<>();
+        List<ItemCatalogDto> page = itemService.findCatalogAfter(itemSearch, null, null, 2);
+        while (!page.isEmpty()) {
+            read.addAll(page);
+            ItemCatalogDto last = page.get(page.size() - 1);
+            page = itemService.findCatalogAfter(itemSearch, last.getName(), last.getId(), 2);
+        }
+
+        //then - 빠지거나 겹치지 않고 (이름, id) 순서로 모두 읽는다.
+        List<ItemCatalogDto> expected = read.stream()
+                .sorted(Comparator.comparing(ItemCatalogDto::getName).thenComparing(ItemCatalogDto::getId))
+                .toList();
+        assertEquals(expected, read);
+        assertEquals(7, read.stream().map(ItemCatalogDto::getId).distinct().count());
+        assertEquals(read, itemService.findCatalogPage(itemSearch, 0, 100).getContent(), "페이지 번호 방식과 결과가 같아야 한다.");
+    }
+
+    @Test
+    public void 종류와_이름_접두어로_검색() throws Exception {
+        //given
+        save(book("ab"), book("ac"), book("b"), movie("ad"));
+        Book nameless = book(null);
+        save(nameless);
+
+        //when
+        List<ItemCatalogDto> books = itemService.findCatalogAfter(search("B"), null, null, 100);
+        Slice<ItemCatalogDto> booksA = itemService.findCatalogPage(searchName("B", prefix + "a"), 0, 100);
+        List<ItemCatalogDto> all = itemService.findCatalogAfter(search(null), null, null, 100);
+
+        //then
+        assertEquals(List.of(prefix + "ab", prefix + "ac", prefix + "b"), books.stream().map(ItemCatalogDto::getName).toList());
+        assertTrue(books.stream().allMatch(i -> "B".equals(i.getDtype())));
+        assertEquals(List.of(prefix + "ab", prefix + "ac"), booksA.getContent().stream().map(ItemCatalogDto::getName).toList());
+        assertFalse(booksA.hasNext());
+        assertEquals(4, all.size());
+
+        //이름 없는 상품은 조건이 없어도 두 페이징 방식 모두에서 빠진다.
+        assertTrue(itemService.findCatalogPage(new ItemSearch(), 0, 1000).getContent().stream()
+                .noneMatch(i -> i.getId().equals(nameless.getId())));
+        assertTrue(itemService.findCatalogAfter(new ItemSearch(), null, null, 1000).stream()
+                .noneMatch(i -> i.getId().equals(nameless.getId())));
+    }
+
+    private void save(Item... items) {
+        for (Item item : items) {
+            itemService.saveItem(item);
+            itemIds.add(item.getId());
+        }
+    }
+
+    //이름이 없는 상품도 만들 수 있도록 suffix가 null이면 이름을 비워둔다.
+    private Book book(String suffix) {
+        Book book = new Book();
+        book.setName(suffix == null ? null : prefix + suffix);
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        return book;
+    }
+
+    private Movie movie(String suffix) {
+        Movie movie = new Movie();
+        movie.setName(prefix + suffix);
+        movie.setPrice(10000);
+        movie.setStockQuantity(10);
+        return movie;
+    }
+
+    private ItemSearch search(String dtype) {
+        return searchName(dtype, prefix);
+    }
+
+    private ItemSearch searchName(String dtype, String namePrefix) {
+        ItemSearch itemSearch = new ItemSearch();
+        itemSearch.setDtype(dtype);
+        itemSearch.setNamePrefix(namePrefix);
+        return itemSearch;
+    }
+}
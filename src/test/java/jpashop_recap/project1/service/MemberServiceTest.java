@@ -2,6 +2,7 @@ package jpashop_recap.project1.service;
 
 import jpashop_recap.project1.domain.Member;
 import jpashop_recap.project1.repository.MemberRepository;
+import jpashop_recap.project1.repository.query.dto.MemberListDto;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
@@ -10,6 +11,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -50,4 +54,47 @@ public class MemberServiceTest {
         assertThrows(IllegalStateException.class, () -> memberService.join(member2));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void 이름_수정_후_중복회원_예외() throws Exception {
+        //given
+        Member member1 = new Member();
+        member1.setName("before");
+        Long id = memberService.join(member1);
+
+        //when
+        memberService.update(id, "after");
+        Member member2 = new Member();
+        member2.setName("after");
+
+        //then
+        assertThrows(IllegalStateException.class, () -> memberService.join(member2));
+    }
+
+    @Test
+    public void 회원목록_커서_페이징() throws Exception {
+        //given
+        for (int i = 0; i < 25; i++) {
+            Member member = new Member();
+            member.setName("page-" + i);
+            memberService.join(member);
+        }
+        long total = memberRepository.count();
+
+        //when
+        List<Long> ids = new ArrayList<>();
+        Long last = null;
+        while (true) {
+            List<MemberListDto> page = memberService.findMemberPage(last, 10);
+            page.forEach(m -> ids.add(m.getId()));
+            if (page.size() < 10) {
+                break;
+            }
+            last = page.get(page.size() - 1).getId();
+        }
+
+        //then
+        assertEquals(total, ids.size());
+        assertEquals(total, ids.stream().distinct().count(), "페이지 사이에 중복된 회원이 있으면 안 된다.");
+    }
+}
@@ -0,0 +1,182 @@
+package jpashop_recap.project1.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jpashop_recap.project1.exception.NotEnoughStockException;
+import jpashop_recap.project1.service.dto.BulkOrderCommand;
+import jpashop_recap.project1.service.dto.BulkOrderResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 주문 접수 대기열 테스트
+ * DB 대신 BulkOrderService를 대역으로 두고, 첫 배치를 처리하는 동안 드레이너 스레드를 붙잡아서
+ * 대기열에 주문이 쌓이는 상황을 만든다. 수량이 FAIL_COUNT인 주문은 재고 부족으로 실패시킨다.
+ * 수량이 POISON_COUNT인 주문이 들어있는 배치는 트랜잭션 전체가 실패한다.
+ */
+public class OrderIntakeServiceTest {
+
+    private static final int FAIL_COUNT = 99;
+    private static final int POISON_COUNT = 98;
+
+    private final BulkOrderService bulkOrderService = mock(BulkOrderService.class);
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicLong orderIds = new AtomicLong();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private OrderIntakeService orderIntakeService;
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        release.countDown();
+        if (orderIntakeService != null) {
+            orderIntakeService.stop();
+        }
+    }
+
+    @Test
+    public void 대기열이_가득_차면_거절() throws Exception {
+        //given - 드레이너가 첫 주문을 처리하는 동안 대기열(2칸)을 채운다.
+        start(2, 10);
+        CompletableFuture<Long> first = orderIntakeService.submit(1L, 1L, 1);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Long> second = orderIntakeService.submit(1L, 1L, 1);
+        CompletableFuture<Long> third = orderIntakeService.submit(1L, 1L, 1);
+
+        //when
+        CompletableFuture<Long> rejected = orderIntakeService.submit(1L, 1L, 1);
+
+        //then
+        ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+
+        //자리가 비면 다시 받는다.
+        release.countDown();
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+        assertNotNull(second.get(5, TimeUnit.SECONDS));
+        assertNotNull(third.get(5, TimeUnit.SECONDS));
+        assertNotNull(orderIntakeService.submit(1L, 1L, 1).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void 배치_안에서_하나만_실패() throws Exception {
+        //given - 첫 주문을 처리하는 동안 들어온 세 주문은 한 배치로 묶인다.
+        start(100, 10);
+        CompletableFuture<Long> blocker = orderIntakeService.submit(1L, 1L, 1);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Long> ok1 = orderIntakeService.submit(1L, 1L, 1);
+        CompletableFuture<Long> failed = orderIntakeService.submit(1L, 1L, FAIL_COUNT);
+        CompletableFuture<Long> ok2 = orderIntakeService.submit(1L, 1L, 1);
+
+        //when
+        release.countDown();
+
+        //then
+        assertNotNull(blocker.get(5, TimeUnit.SECONDS));
+        assertNotNull(ok1.get(5, TimeUnit.SECONDS));
+        assertNotNull(ok2.get(5, TimeUnit.SECONDS));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(NotEnoughStockException.class, e.getCause());
+        assertEquals(List.of(1, 3), batchSizes);
+    }
+
+    @Test
+    public void 종료하면_남은_주문을_처리하고_드레이너가_끝난다() throws Exception {
+        //given
+        start(100, 10);
+        CompletableFuture<Long> blocker = orderIntakeService.submit(1L, 1L, 1);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Long> queued = orderIntakeService.submit(1L, 1L, 1);
+        Thread drainer = (Thread) ReflectionTestUtils.getField(orderIntakeService, "drainer");
+
+        //when - 드레이너가 붙잡혀 있는 동안 종료를 요청한다.
+        CompletableFuture<Void> stopped = CompletableFuture.runAsync(() -> {
+            try {
+                orderIntakeService.stop();
+            } catch (InterruptedException e) {
+                throw new CompletionException(e);
+            }
+        });
+        release.countDown();
+        stopped.get(15, TimeUnit.SECONDS);
+
+        //then
+        assertFalse(drainer.isAlive());
+        assertNotNull(blocker.get(5, TimeUnit.SECONDS));
+        assertNotNull(queued.get(5, TimeUnit.SECONDS), "종료 전에 접수된 주문은 처리되어야 한다.");
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> orderIntakeService.submit(1L, 1L, 1).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    }
+
+    @Test
+    public void 배치_트랜잭션이_실패하면_주문별로_다시_처리() throws Exception {
+        //given
+        start(100, 10);
+        CompletableFuture<Long> blocker = orderIntakeService.submit(1L, 1L, 1);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Long> ok1 = orderIntakeService.submit(1L, 1L, 1);
+        CompletableFuture<Long> poison = orderIntakeService.submit(1L, 1L, POISON_COUNT);
+        CompletableFuture<Long> ok2 = orderIntakeService.submit(1L, 1L, 1);
+
+        //when
+        release.countDown();
+
+        //then - 실패한 배치(3건)를 한 건씩 다시 처리해서, 원인이 된 주문만 실패한다.
+        assertNotNull(blocker.get(5, TimeUnit.SECONDS));
+        assertNotNull(ok1.get(5, TimeUnit.SECONDS));
+        assertNotNull(ok2.get(5, TimeUnit.SECONDS));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> poison.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(List.of(1, 3, 1, 1, 1), batchSizes);
+    }
+
+    @Test
+    public void 종료_대기가_끝나면_남은_주문은_실패로_완료() throws Exception {
+        //given - 드레이너가 첫 주문에 붙잡혀 있는 동안 한 건이 대기열에 남아있다.
+        start(100, 10);
+        orderIntakeService.submit(1L, 1L, 1);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Long> queued = orderIntakeService.submit(1L, 1L, 1);
+
+        //when
+        orderIntakeService.stop(100);
+
+        //then
+        ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    }
+
+    private void start(int capacity, int maxBatchSize) {
+        when(bulkOrderService.order(anyList())).thenAnswer(invocation -> {
+            List<BulkOrderCommand> commands = invocation.getArgument(0);
+            batchSizes.add(commands.size());
+            entered.countDown();
+            release.await();
+            if (commands.stream().anyMatch(c -> c.getLines().get(0).getCount() == POISON_COUNT)) {
+                throw new IllegalStateException("commit failed");
+            }
+            List<BulkOrderResult> results = new ArrayList<>();
+            for (int i = 0; i < commands.size(); i++) {
+                if (commands.get(i).getLines().get(0).getCount() == FAIL_COUNT) {
+                    results.add(BulkOrderResult.failure(i, new NotEnoughStockException("재고가 부족합니다.")));
+                } else {
+                    results.add(BulkOrderResult.success(i, orderIds.incrementAndGet()));
+                }
+            }
+            return results;
+        });
+        orderIntakeService = new OrderIntakeService(bulkOrderService, new SimpleMeterRegistry(),
+                true, capacity, maxBatchSize, 1, 30000);
+        orderIntakeService.start();
+    }
+}
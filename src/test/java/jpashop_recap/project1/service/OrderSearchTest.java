@@ -0,0 +1,99 @@
+package jpashop_recap.project1.service;
+
+import jakarta.persistence.EntityManager;
+import jpashop_recap.project1.domain.Address;
+import jpashop_recap.project1.domain.Member;
+import jpashop_recap.project1.domain.Order;
+import jpashop_recap.project1.domain.OrderSearch;
+import jpashop_recap.project1.domain.item.Book;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 회원명 주문 검색 - 회원명 인덱스로 찾은 회원이 한도(1명)를 넘으면 member 조인으로 조회해도 결과가 같아야 한다.
+ * 회원가입이 커밋된 뒤에 인덱스에 반영되므로 테스트 트랜잭션(@Transactional)을 쓰지 않는다.
+ */
+@SpringBootTest(properties = "jpashop.member.name-index.max-ids=1")
+public class OrderSearchTest {
+
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    private String prefix;
+    private final List<Long> memberIds = new ArrayList<>();
+    private Long itemId;
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        prefix = "search-" + System.nanoTime();
+        memberIds.add(join(prefix + "-a"));
+        memberIds.add(join(prefix + "-b"));
+        transactionTemplate.executeWithoutResult(status -> {
+            Book book = new Book();
+            book.setName("SEARCH BOOK");
+            book.setPrice(10000);
+            book.setStockQuantity(10);
+            em.persist(book);
+            itemId = book.getId();
+        });
+        for (Long memberId : memberIds) {
+            orderIds.add(orderService.order(memberId, itemId, 1));
+        }
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from ItemDailySales s where s.id.itemId = :id").setParameter("id", itemId).executeUpdate();
+            em.createQuery("delete from OrderSummary s where s.orderId in :ids").setParameter("ids", orderIds).executeUpdate();
+            em.createQuery("delete from OrderItem oi where oi.order.id in :ids").setParameter("ids", orderIds).executeUpdate();
+            List<Long> deliveryIds = em.createQuery("select o.delivery.id from Order o where o.id in :ids", Long.class)
+                    .setParameter("ids", orderIds)
+                    .getResultList();
+            em.createQuery("delete from Order o where o.id in :ids").setParameter("ids", orderIds).executeUpdate();
+            em.createQuery("delete from Delivery d where d.id in :ids").setParameter("ids", deliveryIds).executeUpdate();
+            em.createQuery("delete from Item i where i.id = :id").setParameter("id", itemId).executeUpdate();
+            em.createQuery("delete from Member m where m.id in :ids").setParameter("ids", memberIds).executeUpdate();
+        });
+    }
+
+    @Test
+    public void 회원명_검색() throws Exception {
+        //한 명만 일치 - member_id in (...)
+        assertEquals(List.of(orderIds.get(0)), search(prefix + "-a"));
+
+        //두 명이 일치해서 한도를 넘음 - member 조인 + LIKE
+        assertEquals(orderIds, search(prefix + "-%"));
+
+        //아무도 일치하지 않음
+        assertTrue(search(prefix + "-z").isEmpty());
+    }
+
+    private List<Long> search(String memberName) {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName(memberName);
+        return orderService.findOrders(orderSearch).stream()
+                .map(Order::getId)
+                .sorted()
+                .toList();
+    }
+
+    private Long join(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "1", "1111"));
+        return memberService.join(member);
+    }
+}
@@ -0,0 +1,95 @@
+package jpashop_recap.project1.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpashop_recap.project1.domain.Address;
+import jpashop_recap.project1.domain.Member;
+import jpashop_recap.project1.domain.PooledSequenceGenerator;
+import jpashop_recap.project1.domain.item.Book;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 주문 1건당 DB 왕복(prepared statement) 수 측정.
+ * 주문 1건 = 재고 UPDATE 1 + 회원/상품 SELECT 2 + orders/delivery/order_item/order_summary INSERT 4 + 매출 롤업 MERGE 1 = 8
+ * 시퀀스를 매번 호출하면 엔티티 3개마다 시퀀스 호출이 붙어 11이 되고,
+ * pooled-lo 할당에서는 할당 크기(jpashop.id.allocation_size)건마다 한 번씩만 호출하므로 8에 가깝게 나와야 한다.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class OrderServiceRoundTripTest {
+
+    private static final int ORDER_COUNT = 200;
+
+    @Autowired OrderService orderService;
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    private Long memberId;
+    private Long itemId;
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = new Member();
+            member.setName("roundTrip");
+            member.setAddress(new Address("서울", "1", "1111"));
+            em.persist(member);
+
+            Book book = new Book();
+            book.setName("ROUND TRIP BOOK");
+            book.setPrice(10000);
+            book.setStockQuantity(ORDER_COUNT);
+            em.persist(book);
+
+            memberId = member.getId();
+            itemId = book.getId();
+        });
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from OrderItem oi where oi.order.id in :ids").setParameter("ids", orderIds).executeUpdate();
+            List<Long> deliveryIds = em.createQuery("select o.delivery.id from Order o where o.id in :ids", Long.class)
+                    .setParameter("ids", orderIds)
+                    .getResultList();
+            em.createQuery("delete from OrderSummary s where s.orderId in :ids").setParameter("ids", orderIds).executeUpdate();
+            em.createQuery("delete from ItemDailySales s where s.id.itemId = :id").setParameter("id", itemId).executeUpdate();
+            em.createQuery("delete from Order o where o.id in :ids").setParameter("ids", orderIds).executeUpdate();
+            em.createQuery("delete from Delivery d where d.id in :ids").setParameter("ids", deliveryIds).executeUpdate();
+            em.createQuery("delete from Item i where i.id = :id").setParameter("id", itemId).executeUpdate();
+            em.createQuery("delete from Member m where m.id = :id").setParameter("id", memberId).executeUpdate();
+        });
+    }
+
+    @Test
+    public void 주문당_DB_왕복_수() throws Exception {
+        //given
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        //when
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            orderIds.add(orderService.order(memberId, itemId, 1));
+        }
+
+        //then
+        double perOrder = (double) statistics.getPrepareStatementCount() / ORDER_COUNT;
+        assertTrue(perOrder < 9, "주문 1건당 시퀀스 호출이 발생하고 있습니다. statements/order=" + perOrder
+                + ", orders=" + ORDER_COUNT + ", allocationSize=" + emf.getProperties().getOrDefault(
+                PooledSequenceGenerator.ALLOCATION_SIZE_SETTING, PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE));
+    }
+}
@@ -0,0 +1,118 @@
+package jpashop_recap.project1.service;
+
+import jakarta.persistence.EntityManager;
+import jpashop_recap.project1.domain.*;
+import jpashop_recap.project1.domain.item.Book;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 주문 요약은 주문/취소/회원 수정 트랜잭션에서 함께 반영되므로 테스트 트랜잭션(@Transactional) 없이 실제로 커밋한다.
+ */
+@SpringBootTest
+public class OrderSummaryServiceTest {
+
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired OrderSummaryService orderSummaryService;
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    private Long memberId;
+    private Long itemId;
+    private final List<Long> orderIds = new ArrayList<>();
+    private final List<Long> summaryIds = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = new Member();
+            member.setName("summary-" + System.nanoTime());
+            member.setAddress(new Address("서울", "1", "1111"));
+            em.persist(member);
+
+            Book book = new Book();
+            book.setName("SUMMARY BOOK");
+            book.setPrice(10000);
+            book.setStockQuantity(100);
+            em.persist(book);
+
+            memberId = member.getId();
+            itemId = book.getId();
+        });
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from ItemDailySales s where s.id.itemId = :id").setParameter("id", itemId).executeUpdate();
+            em.createQuery("delete from OrderSummary s where s.orderId in :ids").setParameter("ids", orderIds).executeUpdate();
+            em.createQuery("delete from OrderSummary s where s.orderId in :ids").setParameter("ids", summaryIds).executeUpdate();
+            em.createQuery("delete from OrderItem oi where oi.order.id in :ids").setParameter("ids", orderIds).executeUpdate();
+            List<Long> deliveryIds = em.createQuery("select o.delivery.id from Order o where o.id in :ids", Long.class)
+                    .setParameter("ids", orderIds)
+                    .getResultList();
+            em.createQuery("delete from Order o where o.id in :ids").setParameter("ids", orderIds).executeUpdate();
+            em.createQuery("delete from Delivery d where d.id in :ids").setParameter("ids", deliveryIds).executeUpdate();
+            em.createQuery("delete from Item i where i.id = :id").setParameter("id", itemId).executeUpdate();
+            em.createQuery("delete from Member m where m.id = :id").setParameter("id", memberId).executeUpdate();
+        });
+    }
+
+    @Test
+    public void 주문_취소_회원수정이_요약에_반영() throws Exception {
+        //주문
+        Long orderId = orderService.order(memberId, itemId, 1);
+        orderIds.add(orderId);
+        OrderSummary ordered = findSummary(orderId);
+        assertNotNull(ordered);
+        assertEquals(OrderStatus.ORDER, ordered.getStatus());
+
+        //취소
+        orderService.cancelOrder(orderId);
+        assertEquals(OrderStatus.CANCEL, findSummary(orderId).getStatus());
+
+        //회원 이름 수정
+        String newName = "renamed-" + System.nanoTime();
+        memberService.update(memberId, newName);
+        assertEquals(newName, findSummary(orderId).getMemberName());
+    }
+
+    @Test
+    public void 재구성() throws Exception {
+        //given - 요약 하나는 지워지고, 원본 주문이 없는 요약이 하나 남아있다.
+        Long lostId = orderService.order(memberId, itemId, 1);
+        Long keptId = orderService.order(memberId, itemId, 2);
+        orderIds.add(lostId);
+        orderIds.add(keptId);
+        Long orphanId = keptId + 1_000_000;
+        summaryIds.add(orphanId);
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from OrderSummary s where s.orderId = :id").setParameter("id", lostId).executeUpdate();
+            em.persist(new OrderSummary(orphanId, "orphan", LocalDateTime.now(), OrderStatus.ORDER,
+                    new Address("서울", "1", "1111")));
+        });
+
+        //when
+        orderSummaryService.rebuild(1L, Long.MAX_VALUE);
+
+        //then
+        assertNotNull(findSummary(lostId), "지워진 요약은 원본에서 다시 채워진다.");
+        assertNotNull(findSummary(keptId));
+        assertNull(findSummary(orphanId), "원본 주문이 없는 요약은 지워진다.");
+    }
+
+    private OrderSummary findSummary(Long orderId) {
+        return transactionTemplate.execute(status -> em.find(OrderSummary.class, orderId));
+    }
+}
@@ -0,0 +1,96 @@
+package jpashop_recap.project1.service;
+
+import jakarta.persistence.EntityManager;
+import jpashop_recap.project1.domain.item.Book;
+import jpashop_recap.project1.domain.item.Item;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//시도마다 새 트랜잭션을 열어야 하므로 테스트 클래스에 @Transactional을 붙이지 않는다.
+@SpringBootTest
+public class RetryingTransactionExecutorTest {
+
+    @Autowired RetryingTransactionExecutor retryingTransactionExecutor;
+    @Autowired StockService stockService;
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    private Long itemId;
+
+    @BeforeEach
+    public void setUp() {
+        itemId = transactionTemplate.execute(status -> {
+            Book book = new Book();
+            book.setName("BOOK");
+            book.setPrice(10000);
+            book.setStockQuantity(10);
+            em.persist(book);
+            return book.getId();
+        });
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("delete from Item i where i.id = :id").setParameter("id", itemId).executeUpdate());
+    }
+
+    @Test
+    public void 충돌하면_다시_실행() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retryingTransactionExecutor.execute("test", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Item.class, itemId);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void 충돌이_아닌_예외는_다시_실행하지_않음() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> retryingTransactionExecutor.run("test", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException();
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void 읽은_뒤_다른_트랜잭션이_재고를_바꾸면_덮어쓰지_않음() throws Exception {
+        //given - 상품을 읽은 직후 다른 트랜잭션이 재고 3개를 차감하고 먼저 커밋한다.
+        TransactionTemplate other = new TransactionTemplate(transactionManager);
+        other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger attempts = new AtomicInteger();
+
+        //when - 읽은 값에 5개를 더해서 쓴다. (버전이 없으면 3개 차감이 사라지고 15가 된다.)
+        retryingTransactionExecutor.run("test", () -> {
+            Item item = em.find(Item.class, itemId);
+            if (attempts.incrementAndGet() == 1) {
+                other.executeWithoutResult(status -> stockService.reserve(itemId, 3));
+            }
+            item.addStock(5);
+        });
+
+        //then
+        assertEquals(2, attempts.get());
+        assertEquals(12, (int) transactionTemplate.execute(status -> em.find(Item.class, itemId).getStockQuantity()));
+    }
+}
@@ -0,0 +1,116 @@
+package jpashop_recap.project1.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpashop_recap.project1.domain.Address;
+import jpashop_recap.project1.domain.Member;
+import jpashop_recap.project1.domain.item.Book;
+import jpashop_recap.project1.repository.query.dto.ItemSalesDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 매출 롤업은 커밋 직전에 반영되므로 테스트 트랜잭션(@Transactional) 없이 실제로 커밋한다.
+ */
+@SpringBootTest
+public class SalesRollupServiceTest {
+
+    private static final int PRICE = 10000;
+
+    @Autowired OrderService orderService;
+    @Autowired SalesRollupService salesRollupService;
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    private Long memberId;
+    private Long itemId;
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = new Member();
+            member.setName("rollup-" + System.nanoTime());
+            member.setAddress(new Address("서울", "1", "1111"));
+            em.persist(member);
+
+            Book book = new Book();
+            book.setName("ROLLUP BOOK");
+            book.setPrice(PRICE);
+            book.setStockQuantity(100);
+            em.persist(book);
+
+            memberId = member.getId();
+            itemId = book.getId();
+        });
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from ItemDailySales s where s.id.itemId = :id").setParameter("id", itemId).executeUpdate();
+            em.createQuery("delete from OrderSummary s where s.orderId in :ids").setParameter("ids", orderIds).executeUpdate();
+            em.createQuery("delete from OrderItem oi where oi.order.id in :ids").setParameter("ids", orderIds).executeUpdate();
+            List<Long> deliveryIds = em.createQuery("select o.delivery.id from Order o where o.id in :ids", Long.class)
+                    .setParameter("ids", orderIds)
+                    .getResultList();
+            em.createQuery("delete from Order o where o.id in :ids").setParameter("ids", orderIds).executeUpdate();
+            em.createQuery("delete from Delivery d where d.id in :ids").setParameter("ids", deliveryIds).executeUpdate();
+            em.createQuery("delete from Item i where i.id = :id").setParameter("id", itemId).executeUpdate();
+            em.createQuery("delete from Member m where m.id = :id").setParameter("id", memberId).executeUpdate();
+        });
+    }
+
+    @Test
+    public void 롤업_반영이_다른_2차_캐시를_비우지_않는다() throws Exception {
+        //given - 회원을 2차 캐시에 올린다.
+        transactionTemplate.executeWithoutResult(status -> em.find(Member.class, memberId));
+        assertTrue(emf.getCache().contains(Member.class, memberId));
+
+        //when - 주문(롤업 MERGE), 재구성(롤업 INSERT)
+        orderIds.add(orderService.order(memberId, itemId, 1));
+        LocalDate today = LocalDate.now();
+        salesRollupService.rebuild(today, today.plusDays(1));
+
+        //then
+        assertTrue(emf.getCache().contains(Member.class, memberId), "롤업 네이티브 쿼리가 회원 캐시를 비웠습니다.");
+    }
+
+    @Test
+    public void 주문_취소가_롤업에_반영되고_재구성과_같다() throws Exception {
+        //given
+        LocalDate today = LocalDate.now();
+        orderIds.add(orderService.order(memberId, itemId, 3));
+        orderIds.add(orderService.order(memberId, itemId, 2));
+
+        //when
+        orderService.cancelOrder(orderIds.get(1));
+
+        //then
+        ItemSalesDto incremental = findToday(today);
+        assertEquals(3, incremental.getUnits(), "취소된 수량은 빠져야 한다.");
+        assertEquals(3L * PRICE, incremental.getRevenue());
+
+        salesRollupService.rebuild(today, today.plusDays(1));
+        ItemSalesDto rebuilt = findToday(today);
+        assertEquals(incremental.getUnits(), rebuilt.getUnits());
+        assertEquals(incremental.getRevenue(), rebuilt.getRevenue());
+    }
+
+    private ItemSalesDto findToday(LocalDate today) {
+        List<ItemSalesDto> rows = salesRollupService.findDaily(today, today.plusDays(1), itemId);
+        assertEquals(1, rows.size());
+        return rows.get(0);
+    }
+}
@@ -0,0 +1,109 @@
+package jpashop_recap.project1.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpashop_recap.project1.domain.Address;
+import jpashop_recap.project1.domain.Member;
+import jpashop_recap.project1.domain.item.Book;
+import jpashop_recap.project1.domain.item.Item;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 주문이 커밋된 뒤에도 회원/상품 2차 캐시가 살아있어야 한다.
+ * 재고 UPDATE는 주문한 상품만 캐시에서 비우고, 다른 상품과 회원은 그대로 캐시에서 읽는다.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class SecondLevelCacheTest {
+
+    private static final int STOCK = 10;
+
+    @Autowired OrderService orderService;
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    private Long memberId;
+    private Long orderedItemId;
+    private Long otherItemId;
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = new Member();
+            member.setName("cache-" + System.nanoTime());
+            member.setAddress(new Address("서울", "1", "1111"));
+            em.persist(member);
+            memberId = member.getId();
+            orderedItemId = createBook("CACHE BOOK A");
+            otherItemId = createBook("CACHE BOOK B");
+        });
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> itemIds = List.of(orderedItemId, otherItemId);
+            em.createQuery("delete from ItemDailySales s where s.id.itemId in :ids").setParameter("ids", itemIds).executeUpdate();
+            em.createQuery("delete from OrderSummary s where s.orderId in :ids").setParameter("ids", orderIds).executeUpdate();
+            em.createQuery("delete from OrderItem oi where oi.order.id in :ids").setParameter("ids", orderIds).executeUpdate();
+            List<Long> deliveryIds = em.createQuery("select o.delivery.id from Order o where o.id in :ids", Long.class)
+                    .setParameter("ids", orderIds)
+                    .getResultList();
+            em.createQuery("delete from Order o where o.id in :ids").setParameter("ids", orderIds).executeUpdate();
+            em.createQuery("delete from Delivery d where d.id in :ids").setParameter("ids", deliveryIds).executeUpdate();
+            em.createQuery("delete from Item i where i.id in :ids").setParameter("ids", itemIds).executeUpdate();
+            em.createQuery("delete from Member m where m.id = :id").setParameter("id", memberId).executeUpdate();
+        });
+    }
+
+    @Test
+    public void 주문_후에도_캐시_hit() throws Exception {
+        //given - 회원과 상품 둘을 캐시에 올린다.
+        transactionTemplate.executeWithoutResult(status -> {
+            em.find(Member.class, memberId);
+            em.find(Item.class, orderedItemId);
+            em.find(Item.class, otherItemId);
+        });
+
+        //when
+        orderIds.add(orderService.order(memberId, orderedItemId, 1));
+
+        //then - 주문하지 않은 상품과 회원은 캐시에 남아있다.
+        assertTrue(emf.getCache().contains(Item.class, otherItemId));
+        assertTrue(emf.getCache().contains(Member.class, memberId));
+        assertFalse(emf.getCache().contains(Item.class, orderedItemId), "재고가 바뀐 상품은 캐시에서 빠져야 한다.");
+
+        CacheRegionStatistics itemRegion = emf.unwrap(SessionFactory.class).getStatistics()
+                .getDomainDataRegionStatistics("item");
+        long hits = itemRegion.getHitCount();
+        transactionTemplate.executeWithoutResult(status -> em.find(Item.class, otherItemId));
+        assertEquals(hits + 1, itemRegion.getHitCount());
+
+        //주문한 상품은 DB에서 새 재고로 다시 읽어 캐시에 넣는다.
+        Item ordered = transactionTemplate.execute(status -> em.find(Item.class, orderedItemId));
+        assertEquals(STOCK - 1, ordered.getStockQuantity());
+        assertTrue(emf.getCache().contains(Item.class, orderedItemId));
+    }
+
+    private Long createBook(String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(STOCK);
+        em.persist(book);
+        return book.getId();
+    }
+}
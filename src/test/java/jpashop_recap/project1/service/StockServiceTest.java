@@ -0,0 +1,142 @@
+package jpashop_recap.project1.service;
+
+import jakarta.persistence.EntityManager;
+import jpashop_recap.project1.domain.item.Book;
+import jpashop_recap.project1.exception.NotEnoughStockException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//여러 스레드가 각자 트랜잭션으로 커밋해야 하므로 테스트 클래스에 @Transactional을 붙이지 않는다.
+@SpringBootTest
+public class StockServiceTest {
+
+    private static final int STOCK = 1000;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 100;
+
+    @Autowired StockService stockService;
+    @Autowired StockBucketService stockBucketService;
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    private Long itemId;
+
+    @BeforeEach
+    public void setUp() {
+        itemId = transactionTemplate.execute(status -> {
+            Book book = new Book();
+            book.setName("HOT BOOK");
+            book.setPrice(10000);
+            book.setStockQuantity(STOCK);
+            em.persist(book);
+            return book.getId();
+        });
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from StockBucket b where b.id.itemId = :id").setParameter("id", itemId).executeUpdate();
+            em.createQuery("delete from Item i where i.id = :id").setParameter("id", itemId).executeUpdate();
+        });
+        stockBucketService.loadBucketCounts();
+    }
+
+    @Test
+    public void 재고_부족_예외() throws Exception {
+        assertThrows(NotEnoughStockException.class, () -> stockService.reserve(itemId, STOCK + 1));
+        assertEquals(STOCK, stockQuantity());
+    }
+
+    @Test
+    public void 수량은_1개_이상() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> stockService.reserve(itemId, 0));
+        assertThrows(IllegalArgumentException.class, () -> stockService.tryReserve(itemId, -1));
+        assertThrows(IllegalArgumentException.class, () -> stockService.release(itemId, -1));
+        assertEquals(STOCK, stockQuantity());
+    }
+
+    @Test
+    public void 인기상품_동시_주문() throws Exception {
+        동시_주문();
+    }
+
+    @Test
+    public void 분산_재고_동시_주문() throws Exception {
+        stockBucketService.shard(itemId, 4);
+        동시_주문();
+    }
+
+    @Test
+    public void 다른_서버에서_분산_재고_해제() throws Exception {
+        //given - 분산 모드로 바꾼 뒤, 다른 서버가 해제한 것처럼 레지스트리를 거치지 않고 버킷을 item row로 되돌린다.
+        stockBucketService.shard(itemId, 4);
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from StockBucket b where b.id.itemId = :id").setParameter("id", itemId).executeUpdate();
+            em.createQuery("update Item i set i.stockQuantity = :stock where i.id = :id")
+                    .setParameter("stock", STOCK)
+                    .setParameter("id", itemId)
+                    .executeUpdate();
+        });
+        assertTrue(stockBucketService.isSharded(itemId));
+
+        //when
+        stockService.reserve(itemId, 1);
+
+        //then - 버킷이 없으면 레지스트리에서 빠지고 item row에서 차감된다.
+        assertFalse(stockBucketService.isSharded(itemId));
+        assertEquals(STOCK - 1, stockQuantity());
+    }
+
+    //시도 횟수가 재고보다 많아도 정확히 재고만큼만 성공하고, 재고는 0에서 멈춘다.
+    //분산 재고 모드에서는 버킷이 고르지 않게 빠져도 재분배로 마지막 재고까지 팔려야 한다.
+    private void 동시_주문() throws Exception {
+        //given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger success = new AtomicInteger();
+        AtomicInteger notEnough = new AtomicInteger();
+
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    try {
+                        stockService.reserve(itemId, 1);
+                        success.incrementAndGet();
+                    } catch (NotEnoughStockException e) {
+                        notEnough.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        //when
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        //then
+        int attempts = THREADS * ATTEMPTS_PER_THREAD;
+        assertEquals(STOCK, success.get());
+        assertEquals(attempts - STOCK, notEnough.get());
+        assertEquals(0, stockQuantity());
+    }
+
+    private int stockQuantity() {
+        return stockBucketService.available(itemId);
+    }
+}